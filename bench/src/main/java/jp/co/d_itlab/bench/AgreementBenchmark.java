@@ -0,0 +1,75 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jp.co.d_itlab.iaa.WeightedFleissKappa;
+import jp.co.d_itlab.iaa.WeightedKappa;
+
+/**
+ * Benchmarks of weighted Fleiss' kappa over all annotators and of weighted kappa over the first two annotators.
+ * A calculator caches its results, so that each invocation creates a new one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgreementBenchmark
+{
+    @Param({"1000", "100000"})
+    private int N;
+
+    @Param({"3", "10"})
+    private int A;
+
+    @Param({"4", "32"})
+    private int Q;
+
+    @Param({"1", "3"})
+    private int cardinality;
+
+    private RandomAnnotations annotations;
+
+    @Setup
+    public void setUp()
+    {
+        annotations = new RandomAnnotations(N, A, Q, cardinality, 0);
+    }
+
+    @Benchmark
+    public double weightedFleissKappa()
+    {
+        return new WeightedFleissKappa<>(annotations.getData(), annotations.getCategory()).getKappa();
+    }
+
+    @Benchmark
+    public double weightedKappa()
+    {
+        return new WeightedKappa<>(annotations.getPair()).getKappa();
+    }
+}
@@ -0,0 +1,124 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jp.co.d_itlab.iaa.AnnotationMatrix;
+
+/**
+ * Benchmarks of random accesses to an annotation matrix by indices and by keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationMatrixBenchmark
+{
+    private final static int OPERATIONS = 1024;
+
+    @Param({"1000", "100000"})
+    private int N;
+
+    @Param({"4", "32"})
+    private int Q;
+
+    @Param({"1", "3"})
+    private int cardinality;
+
+    private RandomAnnotations annotations;
+    private AnnotationMatrix<Integer, String> matrix;
+    private int[] rows = new int[OPERATIONS];
+    private int[] columns = new int[OPERATIONS];
+    private Integer[] keys = new Integer[OPERATIONS];
+    private String[] labels = new String[OPERATIONS];
+
+    @Setup
+    public void setUp()
+    {
+        annotations = new RandomAnnotations(N, 1, Q, cardinality, 0);
+        matrix = annotations.getData().get("W1");
+        Random random = new Random(1);
+        for (int k = 0; k < OPERATIONS; k++)
+        {
+            rows[k] = random.nextInt(N);
+            columns[k] = random.nextInt(Q);
+            keys[k] = annotations.getSubjects().get(rows[k]);
+            labels[k] = annotations.getCategory().get(columns[k]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public double get()
+    {
+        double sum = 0;
+        for (int k = 0; k < OPERATIONS; k++)
+        {
+            sum += matrix.get(rows[k], columns[k]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public double getByKey()
+    {
+        double sum = 0;
+        for (int k = 0; k < OPERATIONS; k++)
+        {
+            sum += matrix.get(keys[k], labels[k]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public double add()
+    {
+        double sum = 0;
+        for (int k = 0; k < OPERATIONS; k++)
+        {
+            sum += matrix.add(rows[k], columns[k], 0.0);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public double addByKey()
+    {
+        double sum = 0;
+        for (int k = 0; k < OPERATIONS; k++)
+        {
+            sum += matrix.add(keys[k], labels[k], 0.0);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,37 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks with the GC profiler, which reports allocation rates and GC counts along with the times.
+ * Arguments are the same as those of the JMH command line, e.g. a regular expression of benchmarks and "-p N=1000".
+ */
+public class BenchmarkRunner
+{
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,98 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jp.co.d_itlab.iaa.ConfusionMatrix;
+import jp.co.d_itlab.math.IndexedMatrix;
+
+/**
+ * Benchmarks of a confusion matrix and of the doubly stochastic and variation matrices transformed from it.
+ * The matrix is filled with positive counts, so that every row and column can be normalized.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfusionMatrixBenchmark
+{
+    private final static int OPERATIONS = 1024;
+
+    @Param({"4", "32", "128"})
+    private int Q;
+
+    private ConfusionMatrix<String> confusion;
+    private String[] rows = new String[OPERATIONS];
+    private String[] columns = new String[OPERATIONS];
+
+    @Setup
+    public void setUp()
+    {
+        List<String> category = new RandomAnnotations(1, 1, Q, 1, 0).getCategory();
+        confusion = new ConfusionMatrix<>(category);
+        Random random = new Random(0);
+        for (String r : category)
+        {
+            for (String c : category)
+            {
+                confusion.add(r, c, 1 + random.nextInt(100));
+            }
+        }
+        for (int k = 0; k < OPERATIONS; k++)
+        {
+            rows[k] = category.get(random.nextInt(Q));
+            columns[k] = category.get(random.nextInt(Q));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public ConfusionMatrix<String> add()
+    {
+        for (int k = 0; k < OPERATIONS; k++)
+        {
+            confusion.add(rows[k], columns[k], 0.0);
+        }
+        return confusion;
+    }
+
+    @Benchmark
+    public IndexedMatrix<String, String> doublyStochasticMatrix()
+    {
+        return confusion.getDoublyStochasticMatrix();
+    }
+
+    @Benchmark
+    public IndexedMatrix<String, String> variationMatrix()
+    {
+        return confusion.getVariationMatrix();
+    }
+}
@@ -0,0 +1,279 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.bench;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import jp.co.d_itlab.dbdc.excel.AnnotationRowDecoder;
+import jp.co.d_itlab.dbdc.excel.AnnotationSheetReader;
+import jp.co.d_itlab.dbdc.excel.AnnotationWorkbookWriter;
+import jp.co.d_itlab.dbdc.excel.ErrorCategoryAnnotatedUtterance;
+import jp.co.d_itlab.dbdc.model.AnnotationDataset;
+import jp.co.d_itlab.dbdc.model.ErrorCategory;
+import picocli.CommandLine;
+import picocli.CommandLine.Option;
+
+/**
+ * Measures each stage of loading annotation files on synthetic files in the layout of the template.
+ *
+ * The stages are opening a workbook, decoding rows into cell values, building annotated utterances from the values,
+ * and inserting them into a dataset, as well as reading a file by the streaming reader for comparison.
+ * For each stage, rows per second, bytes allocated per row and the peak heap during the stage are reported.
+ * Files are loaded one by one on the current thread, whose allocations are counted by the thread MX bean of HotSpot.
+ */
+public class IngestionBenchmark implements Runnable
+{
+    private final static String[] STAGES = {"open", "row decode", "record build", "dataset insert", "stream read"};
+    private final static int OPEN = 0;
+    private final static int DECODE = 1;
+    private final static int BUILD = 2;
+    private final static int INSERT = 3;
+    private final static int STREAM = 4;
+
+    @Option(names = {"-o"}, description = "directory of synthetic files", defaultValue = "target/ingestion")
+    private String outputPath;
+
+    @Option(names = {"-dic"}, description = "error category dictionary whose labels are used", defaultValue = "../res/dic/INT.dic")
+    private String dicPath;
+
+    @Option(names = {"-files"}, description = "number of files", defaultValue = "4")
+    private int numFiles;
+
+    @Option(names = {"-dialogues"}, description = "number of dialogues per file", defaultValue = "50")
+    private int numDialogues;
+
+    @Option(names = {"-turns"}, description = "number of turns per dialogue", defaultValue = "21")
+    private int numTurns;
+
+    @Option(names = {"-labels"}, description = "maximum number of labels per turn", defaultValue = "2")
+    private int maxLabels;
+
+    @Option(names = {"-warmup"}, description = "number of warmup iterations", defaultValue = "2")
+    private int warmupIterations;
+
+    @Option(names = {"-iterations"}, description = "number of measured iterations", defaultValue = "5")
+    private int iterations;
+
+    @Option(names = {"-seed"}, description = "seed of random numbers", defaultValue = "0")
+    private long seed;
+
+    private com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    private List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+
+    // measurements of each stage
+    private long[] nanos = new long[STAGES.length];
+    private long[] bytes = new long[STAGES.length];
+    private long[] rows = new long[STAGES.length];
+    private long[] peaks = new long[STAGES.length];
+
+    // state of the current measurement
+    private long startNanos;
+    private long startBytes;
+
+    public static void main(String[] args)
+    {
+        System.exit(new CommandLine(new IngestionBenchmark()).execute(args));
+    }
+
+    @Override
+    public void run()
+    {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP)
+            {
+                heapPools.add(pool);
+            }
+        }
+
+        try
+        {
+            ErrorCategory<String> category = new ErrorCategory<>("INT", dicPath);
+            List<File> files = generate(category);
+
+            for (int i = 0; i < warmupIterations; i++)
+            {
+                iterate(files, category);
+            }
+            Arrays.fill(nanos, 0);
+            Arrays.fill(bytes, 0);
+            Arrays.fill(rows, 0);
+            Arrays.fill(peaks, 0);
+            for (int i = 0; i < iterations; i++)
+            {
+                iterate(files, category);
+            }
+            report();
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Ingestion benchmark failed.", e);
+        }
+    }
+
+    private List<File> generate(ErrorCategory<String> category) throws Exception
+    {
+        File dir = new File(outputPath);
+        dir.mkdirs();
+        List<File> files = new ArrayList<>();
+        long size = 0;
+        AnnotationWorkbookWriter writer = new AnnotationWorkbookWriter();
+        for (int i = 0; i < numFiles; i++)
+        {
+            File f = new File(dir, "bench_SYS" + i + ".xlsm");
+            SyntheticRows synthetic = new SyntheticRows(category, numDialogues, numTurns, seed + i);
+            synthetic.setMaxLabels(maxLabels);
+            writer.write(f, synthetic);
+            files.add(f);
+            size += f.length();
+        }
+        System.out.println(String.format("Generated %d files of %d rows (%,d bytes in total) in %s", numFiles, numDialogues * numTurns, size, dir.getAbsolutePath()));
+        return files;
+    }
+
+    private void iterate(List<File> files, ErrorCategory<String> category) throws Exception
+    {
+        AnnotationDataset<String> dataset = new AnnotationDataset<>(category);
+        for (File f : files)
+        {
+            AnnotationRowDecoder decoder = new AnnotationRowDecoder("W1", category.getName(), f.getName());
+
+            begin();
+            Workbook wb = WorkbookFactory.create(f, null, true);
+            end(OPEN, 0);
+
+            begin();
+            List<Object[]> values = decodeRows(wb);
+            end(DECODE, values.size());
+            wb.close();
+
+            begin();
+            List<ErrorCategoryAnnotatedUtterance<String>> utterances = new ArrayList<>(values.size());
+            for (Object[] v : values)
+            {
+                utterances.add(decoder.decode(v, false));
+            }
+            end(BUILD, utterances.size());
+
+            begin();
+            for (ErrorCategoryAnnotatedUtterance<String> u : utterances)
+            {
+                dataset.add(u);
+            }
+            end(INSERT, utterances.size());
+
+            // the streaming reader is measured without the rows above
+            values = null;
+            utterances = null;
+            begin();
+            utterances = new AnnotationSheetReader(decoder).read(f);
+            end(STREAM, utterances.size());
+        }
+    }
+
+    /**
+     * Reads the cell values of rows following the header until the first row whose first cell is empty,
+     * in the same manner as {@link AnnotationRowDecoder#decode(Workbook)}.
+     */
+    private static List<Object[]> decodeRows(Workbook wb)
+    {
+        List<Object[]> values = new ArrayList<>();
+        Iterator<Row> it = wb.getSheetAt(0).rowIterator();
+        if (it.hasNext())
+        {
+            // skip header
+            it.next();
+        }
+        while (it.hasNext())
+        {
+            Row row = it.next();
+            if (row.getCell(0) == null)
+            {
+                break;
+            }
+            Object[] v = new Object[AnnotationRowDecoder.NUM_COLUMNS];
+            for (int i = 0; i < v.length; i++)
+            {
+                Cell cell = row.getCell(i);
+                if (cell == null)
+                {
+                    continue;
+                }
+                switch (cell.getCellType())
+                {
+                    case STRING:
+                        v[i] = cell.getStringCellValue();
+                        break;
+                    case NUMERIC:
+                        v[i] = cell.getNumericCellValue();
+                        break;
+                    default:
+                        break;
+                }
+            }
+            values.add(v);
+        }
+        return values;
+    }
+
+    private void begin()
+    {
+        for (MemoryPoolMXBean pool : heapPools)
+        {
+            pool.resetPeakUsage();
+        }
+        startBytes = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        startNanos = System.nanoTime();
+    }
+
+    private void end(int stage, int n)
+    {
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - startBytes;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools)
+        {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        nanos[stage] += elapsed;
+        bytes[stage] += allocated;
+        rows[stage] += n;
+        peaks[stage] = Math.max(peaks[stage], peak);
+    }
+
+    private void report()
+    {
+        // the open stage is measured per file, and its rows are those decoded afterwards
+        long[] perRow = rows.clone();
+        perRow[OPEN] = rows[DECODE];
+
+        System.out.println(String.format("%-16s %14s %14s %14s", "stage", "rows/s", "bytes/row", "peak heap MB"));
+        for (int s = 0; s < STAGES.length; s++)
+        {
+            double rowsPerSecond = perRow[s] * 1e9 / Math.max(1, nanos[s]);
+            double bytesPerRow = (double)bytes[s] / Math.max(1, perRow[s]);
+            System.out.println(String.format("%-16s %,14.0f %,14.0f %,14.1f", STAGES[s], rowsPerSecond, bytesPerRow, peaks[s] / 1048576.0));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.bench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import jp.co.d_itlab.iaa.AnnotationMatrix;
+import jp.co.d_itlab.iaa.SubjectIndex;
+
+/**
+ * Random annotations for benchmarks.
+ *
+ * Each of A annotators assigns labels to all of N subjects, where each subject has the given number of labels
+ * drawn from Q labels without replacement, and each label has the weight of 1 / cardinality.
+ */
+public class RandomAnnotations
+{
+    private List<String> category = new ArrayList<>();
+    private SubjectIndex<Integer> subjects;
+    private Map<String, AnnotationMatrix<Integer, String>> data = new LinkedHashMap<>();
+
+    public RandomAnnotations(int N, int A, int Q, int cardinality, long seed)
+    {
+        if (cardinality < 1 || cardinality > Q)
+        {
+            throw new RuntimeException("Invalid label cardinality: " + cardinality + " (Q: " + Q + ")");
+        }
+        for (int j = 0; j < Q; j++)
+        {
+            category.add("L" + j);
+        }
+        subjects = new SubjectIndex<>(N);
+        for (int i = 0; i < N; i++)
+        {
+            subjects.intern(i);
+        }
+
+        Random random = new Random(seed);
+        int[] labels = new int[Q];
+        for (int a = 0; a < A; a++)
+        {
+            String annotator = "W" + (a + 1);
+            AnnotationMatrix<Integer, String> m = new AnnotationMatrix<>(annotator, subjects, category);
+            for (int i = 0; i < N; i++)
+            {
+                // partial Fisher-Yates shuffle for distinct labels
+                for (int j = 0; j < Q; j++)
+                {
+                    labels[j] = j;
+                }
+                for (int k = 0; k < cardinality; k++)
+                {
+                    int r = k + random.nextInt(Q - k);
+                    int label = labels[r];
+                    labels[r] = labels[k];
+                    labels[k] = label;
+                    m.add(i, label, 1.0 / cardinality);
+                }
+            }
+            data.put(annotator, m);
+        }
+    }
+
+    public List<String> getCategory()
+    {
+        return category;
+    }
+
+    public SubjectIndex<Integer> getSubjects()
+    {
+        return subjects;
+    }
+
+    public Map<String, AnnotationMatrix<Integer, String>> getData()
+    {
+        return data;
+    }
+
+    /**
+     * Returns the annotations of the first two annotators.
+     */
+    public Map<String, AnnotationMatrix<Integer, String>> getPair()
+    {
+        Map<String, AnnotationMatrix<Integer, String>> pair = new LinkedHashMap<>();
+        for (String annotator : data.keySet())
+        {
+            if (pair.size() < 2)
+            {
+                pair.put(annotator, data.get(annotator));
+            }
+        }
+        return pair;
+    }
+}
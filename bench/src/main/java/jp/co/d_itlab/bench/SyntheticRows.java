@@ -0,0 +1,152 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.bench;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic rows of an annotation sheet in the order of the columns of the decoder.
+ *
+ * Dialogues consist of turns of the system and the user in turn. Each turn of the system is annotated by 30 annotators,
+ * and is broken down at a given rate, where it has one or more labels drawn from the given labels.
+ * Rows are generated on demand from a seed, so that the same rows are given by each iteration.
+ */
+public class SyntheticRows implements Iterable<Object[]>
+{
+    private final static int NUM_ANNOTATIONS = 30;
+    private final static long START_TIME = 1470622453000L;
+
+    private List<String> labels;
+    private int numDialogues;
+    private int numTurns;
+    private long seed;
+    private double breakdownRate = 0.5;
+    private int maxLabels = 2;
+    private int utteranceLength = 40;
+
+    public SyntheticRows(List<String> labels, int numDialogues, int numTurns, long seed)
+    {
+        this.labels = new ArrayList<>(labels);
+        this.numDialogues = numDialogues;
+        this.numTurns = numTurns;
+        this.seed = seed;
+    }
+
+    public void setBreakdownRate(double breakdownRate)
+    {
+        this.breakdownRate = breakdownRate;
+    }
+
+    public void setMaxLabels(int maxLabels)
+    {
+        this.maxLabels = Math.max(1, Math.min(maxLabels, labels.size()));
+    }
+
+    public void setUtteranceLength(int utteranceLength)
+    {
+        this.utteranceLength = utteranceLength;
+    }
+
+    public int size()
+    {
+        return numDialogues * numTurns;
+    }
+
+    @Override
+    public Iterator<Object[]> iterator()
+    {
+        return new Iterator<Object[]>()
+        {
+            private Random random = new Random(seed);
+            private int n = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return n < size();
+            }
+
+            @Override
+            public Object[] next()
+            {
+                int d = n / numTurns;
+                int t = n % numTurns;
+                n++;
+                return row(random, d, t);
+            }
+        };
+    }
+
+    private Object[] row(Random random, int d, int t)
+    {
+        boolean isSystem = t % 2 == 0;
+        Object[] values = new Object[13];
+        values[0] = (double)(START_TIME / 1000 + d);
+        values[2] = "sp" + d;
+        values[3] = isSystem ? "S" : "U";
+        values[4] = new Date(START_TIME + d * 3600_000L + t * 10_000L);
+        values[5] = (double)t;
+        values[6] = utterance(random);
+
+        int numO = 0;
+        int numT = 0;
+        int numX = 0;
+        int numAnnotations = isSystem ? NUM_ANNOTATIONS : 0;
+        if (isSystem)
+        {
+            boolean isBreakdown = random.nextDouble() < breakdownRate;
+            int broken = isBreakdown ? NUM_ANNOTATIONS / 2 + random.nextInt(NUM_ANNOTATIONS / 2 + 1) : random.nextInt(NUM_ANNOTATIONS / 2);
+            numX = random.nextInt(broken + 1);
+            numT = broken - numX;
+            numO = NUM_ANNOTATIONS - broken;
+            if (isBreakdown)
+            {
+                values[11] = labels(random);
+            }
+        }
+        values[7] = (double)numAnnotations;
+        values[8] = (double)numO;
+        values[9] = (double)numT;
+        values[10] = (double)numX;
+        return values;
+    }
+
+    private String labels(Random random)
+    {
+        int n = 1 + random.nextInt(maxLabels);
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < n; k++)
+        {
+            if (k > 0)
+            {
+                sb.append(" | ");
+            }
+            sb.append(labels.get(random.nextInt(labels.size())));
+        }
+        return sb.toString();
+    }
+
+    private String utterance(Random random)
+    {
+        char[] cs = new char[utteranceLength];
+        for (int k = 0; k < cs.length; k++)
+        {
+            // hiragana
+            cs[k] = (char)(0x3041 + random.nextInt(83));
+        }
+        return new String(cs);
+    }
+}
@@ -0,0 +1,279 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.excel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * On-disk cache of utterances parsed from annotated files.
+ *
+ * Each file has its own entry, which holds the path, the size, the last modified time and the SHA-256 hash of the file
+ * and the column layout the file was parsed with, together with the values of parsed rows in a binary form.
+ * An entry is valid if it was parsed with the same layout, and if the size and the last modified time are unchanged
+ * or the content hash is unchanged.
+ * Entries are written to temporary files and moved into place, so that a broken entry is never read.
+ */
+public class AnnotationCache
+{
+    public final static int MAGIC = 0x57464B43;
+    public final static int VERSION = 2;
+
+    // fields of a row in the order of decoding
+    private final static FieldName[] FIELDS = {
+            FieldName.DialogueId, FieldName.GroupId, FieldName.SpeakerId, FieldName.Speaker, FieldName.Time,
+            FieldName.TurnIndex, FieldName.Utterance, FieldName.NumAnnotation, FieldName.NumO, FieldName.NumT,
+            FieldName.NumX, FieldName.BreakdownCategory, FieldName.Remark };
+
+    private File directory;
+
+    public AnnotationCache(File directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the directory of the cache placed next to an input directory, e.g. "data.iaa-cache" for "data".
+     */
+    public static File getDefaultDirectory(String path)
+    {
+        File input = new File(path).getAbsoluteFile();
+        return new File(input.getParentFile(), input.getName() + ".iaa-cache");
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Returns the cached utterances of a file, or null if the file is not cached or has been changed.
+     *
+     * @param decoder - decoder of the file, which gives the annotator, the category type and the file name of utterances
+     * @param layout - layout of columns the file is parsed with, e.g. a column mapping of delimited text
+     */
+    public List<ErrorCategoryAnnotatedUtterance<String>> get(File f, AnnotationRowDecoder decoder, String layout) throws IOException
+    {
+        File entry = getEntry(f);
+        if (!entry.isFile())
+        {
+            return null;
+        }
+
+        byte[] hash;
+        boolean isTouched = false;
+        List<ErrorCategoryAnnotatedUtterance<String>> utterances;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entry))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                return null;
+            }
+            String path = in.readUTF();
+            String annotator = in.readUTF();
+            String categoryType = in.readUTF();
+            String cachedLayout = in.readUTF();
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            hash = new byte[in.readInt()];
+            in.readFully(hash);
+
+            if (!path.equals(f.getAbsolutePath()) || !annotator.equals(decoder.getAnnotator()) || !categoryType.equals(String.valueOf(decoder.getCategoryType()))
+                    || !cachedLayout.equals(layout))
+            {
+                return null;
+            }
+
+            if (size != f.length())
+            {
+                return null;
+            }
+            else if (lastModified != f.lastModified())
+            {
+                if (!Arrays.equals(hash, hash(f)))
+                {
+                    return null;
+                }
+                isTouched = true;
+            }
+
+            utterances = read(in, decoder);
+        }
+
+        if (isTouched)
+        {
+            // renew the entry so that the content is not hashed again
+            write(f, hash, decoder, layout, utterances);
+        }
+        return utterances;
+    }
+
+    /**
+     * Stores utterances parsed from a file with a layout of columns.
+     */
+    public void put(File f, AnnotationRowDecoder decoder, String layout, List<ErrorCategoryAnnotatedUtterance<String>> utterances) throws IOException
+    {
+        write(f, hash(f), decoder, layout, utterances);
+    }
+
+    private void write(File f, byte[] hash, AnnotationRowDecoder decoder, String layout, List<ErrorCategoryAnnotatedUtterance<String>> utterances) throws IOException
+    {
+        Files.createDirectories(directory.toPath());
+        File entry = getEntry(f);
+        File tmp = File.createTempFile(entry.getName(), ".tmp", directory);
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(f.getAbsolutePath());
+                out.writeUTF(decoder.getAnnotator());
+                out.writeUTF(String.valueOf(decoder.getCategoryType()));
+                out.writeUTF(layout);
+                out.writeLong(f.length());
+                out.writeLong(f.lastModified());
+                out.writeInt(hash.length);
+                out.write(hash);
+                write(out, utterances);
+            }
+            Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private static void write(DataOutputStream out, List<ErrorCategoryAnnotatedUtterance<String>> utterances) throws IOException
+    {
+        out.writeInt(utterances.size());
+        for (ErrorCategoryAnnotatedUtterance<String> u : utterances)
+        {
+            for (FieldName fieldName : FIELDS)
+            {
+                boolean hasValue = u.hasValue(fieldName);
+                out.writeBoolean(hasValue);
+                if (!hasValue)
+                {
+                    continue;
+                }
+                switch (fieldName.getType())
+                {
+                    case Integer:
+                        out.writeInt(u.getIntValue(fieldName));
+                        break;
+                    case Date:
+                        out.writeLong(u.getTimeMillis());
+                        break;
+                    default:
+                        out.writeUTF(u.getValue(fieldName));
+                        break;
+                }
+            }
+        }
+    }
+
+    private static List<ErrorCategoryAnnotatedUtterance<String>> read(DataInputStream in, AnnotationRowDecoder decoder) throws IOException
+    {
+        int n = in.readInt();
+        List<ErrorCategoryAnnotatedUtterance<String>> utterances = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+        {
+            ErrorCategoryAnnotatedUtterance<String> u = decoder.newUtterance();
+            for (FieldName fieldName : FIELDS)
+            {
+                if (!in.readBoolean())
+                {
+                    u.setValue(fieldName, null);
+                    continue;
+                }
+                switch (fieldName.getType())
+                {
+                    case Integer:
+                        u.setValue(fieldName, in.readInt());
+                        break;
+                    case Date:
+                        u.setValue(fieldName, new Date(in.readLong()));
+                        break;
+                    default:
+                        u.setValue(fieldName, in.readUTF());
+                        break;
+                }
+            }
+            utterances.add(u);
+        }
+        return utterances;
+    }
+
+    /**
+     * Entries are named after the hash of the absolute path of files.
+     */
+    private File getEntry(File f)
+    {
+        return new File(directory, toHex(digest("SHA-1").digest(f.getAbsolutePath().getBytes(StandardCharsets.UTF_8))) + ".bin");
+    }
+
+    private static byte[] hash(File f) throws IOException
+    {
+        MessageDigest md = digest("SHA-256");
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(f))
+        {
+            int n;
+            while ((n = in.read(buffer)) > 0)
+            {
+                md.update(buffer, 0, n);
+            }
+        }
+        return md.digest();
+    }
+
+    private static MessageDigest digest(String algorithm)
+    {
+        try
+        {
+            return MessageDigest.getInstance(algorithm);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException("Digest algorithm is not available: " + algorithm, e);
+        }
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+        {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
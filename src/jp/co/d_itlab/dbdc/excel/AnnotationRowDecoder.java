@@ -0,0 +1,237 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.excel;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import jp.co.d_itlab.dbdc.logging.DateTimeFormat;
+
+/**
+ * Decodes rows of an annotation sheet into annotated utterances.
+ *
+ * The columns are dialogue ID, group ID, speaker ID, speaker, time, turn index, utterance,
+ * the number of annotations, the numbers of O, T and X, breakdown category and remark.
+ * An instance holds its own number format, so that each file should be decoded by its own instance
+ * when files are decoded concurrently.
+ */
+public class AnnotationRowDecoder
+{
+    public final static int NUM_COLUMNS = 13;
+
+    private NumberFormat nf = NumberFormat.getInstance();
+    private String annotator;
+    private String categoryType;
+    private String fileName;
+
+    public AnnotationRowDecoder(String annotator, String categoryType, String fileName)
+    {
+        this.annotator = annotator;
+        this.categoryType = categoryType;
+        this.fileName = fileName;
+    }
+
+    public String getAnnotator()
+    {
+        return annotator;
+    }
+
+    public String getCategoryType()
+    {
+        return categoryType;
+    }
+
+    public String getFileName()
+    {
+        return fileName;
+    }
+
+    /**
+     * Decodes the rows of the first sheet following the header until the first row whose first cell is empty.
+     */
+    public List<ErrorCategoryAnnotatedUtterance<String>> decode(Workbook wb)
+    {
+        List<ErrorCategoryAnnotatedUtterance<String>> utterances = new ArrayList<>();
+
+        Sheet sheet = wb.getSheetAt(0);
+        Iterator<Row> rows = sheet.rowIterator();
+        int n = 0;
+        while(rows.hasNext())
+        {
+            Row row = rows.next();
+
+            if (n++ == 0)
+            {
+                // skip header
+                continue;
+            }
+
+            if (row.getCell(0) == null)
+            {
+                // end of data
+                break;
+            }
+
+            utterances.add(decode(row));
+        }
+        return utterances;
+    }
+
+    public ErrorCategoryAnnotatedUtterance<String> decode(Row row)
+    {
+        ErrorCategoryAnnotatedUtterance<String> u = newUtterance();
+        u.setValue(FieldName.DialogueId, getStirngValue(row.getCell(0)).replaceAll(",", ""));
+        u.setValue(FieldName.GroupId, getStirngValue(row.getCell(1)).replaceAll(",", ""));
+        u.setValue(FieldName.SpeakerId, getStirngValue(row.getCell(2)));
+        u.setValue(FieldName.Speaker, getStirngValue(row.getCell(3)));
+        u.setValue(FieldName.Time, getDateValue(row.getCell(4)));
+        u.setValue(FieldName.TurnIndex, getStirngValue(row.getCell(5)).replaceAll(",", ""));
+        u.setValue(FieldName.Utterance, getStirngValue(row.getCell(6)));
+        u.setValue(FieldName.NumAnnotation, getStirngValue(row.getCell(7)));
+        u.setValue(FieldName.NumO, getStirngValue(row.getCell(8)));
+        u.setValue(FieldName.NumT, getStirngValue(row.getCell(9)));
+        u.setValue(FieldName.NumX, getStirngValue(row.getCell(10)));
+        u.setValue(FieldName.BreakdownCategory, getStirngValue(row.getCell(11)));
+        u.setValue(FieldName.Remark, getStirngValue(row.getCell(12)));
+        return u;
+    }
+
+    /**
+     * Decodes a row given by cell values in the same manner as {@link #decode(Row)}.
+     * Each value is a String for a string cell, a Double for a numeric cell, or null for a missing cell or a cell of other types.
+     * A time may also be given as a Date.
+     *
+     * @param date1904 - true if numeric dates are in the 1904 date system
+     */
+    public ErrorCategoryAnnotatedUtterance<String> decode(Object[] values, boolean date1904)
+    {
+        ErrorCategoryAnnotatedUtterance<String> u = newUtterance();
+        u.setValue(FieldName.DialogueId, getStirngValue(values, 0).replaceAll(",", ""));
+        u.setValue(FieldName.GroupId, getStirngValue(values, 1).replaceAll(",", ""));
+        u.setValue(FieldName.SpeakerId, getStirngValue(values, 2));
+        u.setValue(FieldName.Speaker, getStirngValue(values, 3));
+        u.setValue(FieldName.Time, getDateValue(values, 4, date1904));
+        u.setValue(FieldName.TurnIndex, getStirngValue(values, 5).replaceAll(",", ""));
+        u.setValue(FieldName.Utterance, getStirngValue(values, 6));
+        u.setValue(FieldName.NumAnnotation, getStirngValue(values, 7));
+        u.setValue(FieldName.NumO, getStirngValue(values, 8));
+        u.setValue(FieldName.NumT, getStirngValue(values, 9));
+        u.setValue(FieldName.NumX, getStirngValue(values, 10));
+        u.setValue(FieldName.BreakdownCategory, getStirngValue(values, 11));
+        u.setValue(FieldName.Remark, getStirngValue(values, 12));
+        return u;
+    }
+
+    /**
+     * Creates an utterance holding the annotator, the category type and the file name.
+     */
+    public ErrorCategoryAnnotatedUtterance<String> newUtterance()
+    {
+        ErrorCategoryAnnotatedUtterance<String> u = new ErrorCategoryAnnotatedUtterance<>();
+        u.categoryType = categoryType;
+        u.setValue(FieldName.Annotator, annotator);
+        u.setValue(FieldName.FileName, fileName);
+        return u;
+    }
+
+    public String getStirngValue(Cell cell)
+    {
+        if (cell != null)
+        {
+            switch(cell.getCellType())
+            {
+                //case Cell.CELL_TYPE_STRING:
+                case STRING:
+                    return cell.getStringCellValue();
+                //case Cell.CELL_TYPE_NUMERIC:
+                case NUMERIC:
+                    return nf.format(cell.getNumericCellValue());
+            }
+        }
+
+        return "";
+    }
+
+    public Date getDateValue(Cell cell)
+    {
+        if (cell != null)
+        {
+            switch(cell.getCellType())
+            {
+                case STRING:
+                // case Cell.CELL_TYPE_STRING:
+                    return parseDate(cell.getStringCellValue());
+                //case Cell.CELL_TYPE_NUMERIC:
+                case NUMERIC:
+                    return cell.getDateCellValue();
+            }
+        }
+
+        return null;
+    }
+
+    private String getStirngValue(Object[] values, int i)
+    {
+        Object value = i < values.length ? values[i] : null;
+        if (value instanceof String)
+        {
+            return (String)value;
+        }
+        else if (value instanceof Double)
+        {
+            return nf.format(((Double)value).doubleValue());
+        }
+
+        return "";
+    }
+
+    private Date getDateValue(Object[] values, int i, boolean date1904)
+    {
+        Object value = i < values.length ? values[i] : null;
+        if (value instanceof String)
+        {
+            return parseDate((String)value);
+        }
+        else if (value instanceof Double)
+        {
+            return DateUtil.getJavaDate(((Double)value).doubleValue(), date1904);
+        }
+        else if (value instanceof Date)
+        {
+            return (Date)value;
+        }
+
+        return null;
+    }
+
+    public static Date parseDate(String s)
+    {
+        if (s.contains("/"))
+        {
+            return DateUtil.parseYYYYMMDDDate(s);
+        }
+        else
+        {
+            return DateTimeFormat.parseDDMMYYYYHHMMSS(s);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.excel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads annotated utterances from the first sheet of an XLSX/XLSM file without building a workbook.
+ *
+ * The sheet is parsed as a stream of SAX events through a read-only package,
+ * so that only the shared strings and the first sheet are read and the other parts such as VBA projects are never loaded.
+ * Rows are read in the same manner as {@link AnnotationRowDecoder#decode(org.apache.poi.ss.usermodel.Workbook)}:
+ * the first row is skipped as the header, and reading stops at the first row without a cell in column A.
+ * Formula, boolean and error cells are treated as empty as well.
+ */
+public class AnnotationSheetReader
+{
+    private AnnotationRowDecoder decoder;
+
+    public AnnotationSheetReader(AnnotationRowDecoder decoder)
+    {
+        this.decoder = decoder;
+    }
+
+    public List<ErrorCategoryAnnotatedUtterance<String>> read(File f) throws IOException, OpenXML4JException, SAXException
+    {
+        try (OPCPackage pkg = OPCPackage.open(f, PackageAccess.READ))
+        {
+            return read(pkg);
+        }
+    }
+
+    private List<ErrorCategoryAnnotatedUtterance<String>> read(OPCPackage pkg) throws IOException, OpenXML4JException, SAXException
+    {
+        XSSFReader reader = new XSSFReader(pkg);
+        // phonetic runs are excluded as XSSFRichTextString#getString() does
+        ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+
+        boolean date1904;
+        try (InputStream in = reader.getWorkbookData())
+        {
+            WorkbookHandler handler = new WorkbookHandler();
+            parse(in, handler);
+            date1904 = handler.date1904;
+        }
+
+        Iterator<InputStream> sheets = reader.getSheetsData();
+        if (!sheets.hasNext())
+        {
+            throw new RuntimeException("No sheet is found.");
+        }
+        try (InputStream in = sheets.next())
+        {
+            SheetHandler handler = new SheetHandler(strings, date1904);
+            try
+            {
+                parse(in, handler);
+            }
+            catch (EndOfData e)
+            {
+                // the rest of the sheet is skipped
+            }
+            return handler.utterances;
+        }
+    }
+
+    private static void parse(InputStream in, DefaultHandler handler) throws IOException, SAXException
+    {
+        try
+        {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(in));
+        }
+        catch (ParserConfigurationException e)
+        {
+            throw new RuntimeException("SAX parser is not available.", e);
+        }
+    }
+
+    /**
+     * Returns the zero-based column index of a cell reference such as "B12".
+     */
+    private static int columnOf(String ref)
+    {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++)
+        {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z')
+            {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Thrown to stop parsing at the end of data.
+     */
+    private static class EndOfData extends SAXException
+    {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Reads the date system of the workbook.
+     */
+    private static class WorkbookHandler extends DefaultHandler
+    {
+        private boolean date1904 = false;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+        {
+            if ("workbookPr".equals(localName))
+            {
+                String value = attributes.getValue("date1904");
+                date1904 = "1".equals(value) || "true".equals(value);
+            }
+        }
+    }
+
+    /**
+     * Collects cell values of each row and decodes them.
+     */
+    private class SheetHandler extends DefaultHandler
+    {
+        private ReadOnlySharedStringsTable strings;
+        private boolean date1904;
+        private List<ErrorCategoryAnnotatedUtterance<String>> utterances = new ArrayList<>();
+
+        private Object[] values = new Object[AnnotationRowDecoder.NUM_COLUMNS];
+        private int numRows = 0;
+        private boolean hasFirstColumn;
+        private int nextColumn;
+
+        // the current cell
+        private int column;
+        private String type;
+        private boolean isFormula;
+        private boolean isPhonetic;
+        private boolean isText;
+        private StringBuilder text = new StringBuilder();
+
+        private SheetHandler(ReadOnlySharedStringsTable strings, boolean date1904)
+        {
+            this.strings = strings;
+            this.date1904 = date1904;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+        {
+            switch (localName)
+            {
+                case "row":
+                    Arrays.fill(values, null);
+                    hasFirstColumn = false;
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref == null ? nextColumn : columnOf(ref);
+                    nextColumn = column + 1;
+                    hasFirstColumn |= column == 0;
+                    type = attributes.getValue("t");
+                    isFormula = false;
+                    text.setLength(0);
+                    break;
+                case "f":
+                    isFormula = true;
+                    break;
+                case "rPh":
+                    isPhonetic = true;
+                    break;
+                case "v":
+                case "t":
+                    isText = !isPhonetic;
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length)
+        {
+            if (isText)
+            {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException
+        {
+            switch (localName)
+            {
+                case "v":
+                case "t":
+                    isText = false;
+                    break;
+                case "rPh":
+                    isPhonetic = false;
+                    break;
+                case "c":
+                    if (column >= 0 && column < values.length)
+                    {
+                        values[column] = getValue();
+                    }
+                    break;
+                case "row":
+                    if (numRows++ == 0)
+                    {
+                        // skip header
+                        break;
+                    }
+                    if (!hasFirstColumn)
+                    {
+                        // end of data
+                        throw new EndOfData();
+                    }
+                    utterances.add(decoder.decode(values, date1904));
+                    break;
+            }
+        }
+
+        /**
+         * Returns the value of the current cell as a String, a Double or null.
+         */
+        private Object getValue()
+        {
+            if (isFormula)
+            {
+                return null;
+            }
+            if (type == null || "n".equals(type))
+            {
+                return text.length() == 0 ? null : Double.valueOf(text.toString());
+            }
+            switch (type)
+            {
+                case "s":
+                    return strings.getItemAt(Integer.parseInt(text.toString())).getString();
+                case "inlineStr":
+                case "str":
+                    return text.toString();
+                default:
+                    return null;
+            }
+        }
+    }
+}
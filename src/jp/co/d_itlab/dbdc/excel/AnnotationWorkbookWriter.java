@@ -0,0 +1,116 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.excel;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbookType;
+
+/**
+ * Writes annotated rows into a macro-enabled workbook in the layout of the annotation template,
+ * which can be read by {@link AnnotationRowDecoder} and {@link AnnotationSheetReader}.
+ *
+ * Rows are given by values in the order of the columns of the decoder,
+ * where a String is written as a string cell, a Number as a numeric cell and a Date as a formatted numeric cell,
+ * and null is left as no cell. The dialogue ID of each row must not be null, since the first row without it ends the data.
+ * Rows are streamed into the file, so that only a window of rows is held in memory.
+ */
+public class AnnotationWorkbookWriter
+{
+    private final static FieldName[] COLUMNS = {
+            FieldName.DialogueId, FieldName.GroupId, FieldName.SpeakerId, FieldName.Speaker, FieldName.Time,
+            FieldName.TurnIndex, FieldName.Utterance, FieldName.NumAnnotation, FieldName.NumO, FieldName.NumT,
+            FieldName.NumX, FieldName.BreakdownCategory, FieldName.Remark
+    };
+
+    private final static int WINDOW_SIZE = 100;
+
+    /**
+     * Returns the names of the columns in the header.
+     */
+    public static String[] getColumnNames()
+    {
+        String[] names = new String[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++)
+        {
+            names[i] = COLUMNS[i].getName();
+        }
+        return names;
+    }
+
+    public void write(File f, Iterable<Object[]> rows) throws IOException
+    {
+        SXSSFWorkbook wb = new SXSSFWorkbook(new XSSFWorkbook(XSSFWorkbookType.XLSM), WINDOW_SIZE);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(f)))
+        {
+            Sheet sheet = wb.createSheet("Sheet1");
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy/m/d h:mm:ss"));
+
+            int nRow = 0;
+            Row row = sheet.createRow(nRow);
+            for (int i = 0; i < COLUMNS.length; i++)
+            {
+                row.createCell(i).setCellValue(COLUMNS[i].getName());
+            }
+
+            for (Object[] values : rows)
+            {
+                if (values.length == 0 || values[0] == null)
+                {
+                    throw new RuntimeException("Dialogue ID is missing at row " + (nRow + 1) + ".");
+                }
+                row = sheet.createRow(++nRow);
+                for (int i = 0; i < values.length && i < COLUMNS.length; i++)
+                {
+                    Object value = values[i];
+                    if (value == null)
+                    {
+                        continue;
+                    }
+                    Cell cell = row.createCell(i);
+                    if (value instanceof Number)
+                    {
+                        cell.setCellValue(((Number)value).doubleValue());
+                    }
+                    else if (value instanceof Date)
+                    {
+                        cell.setCellValue((Date)value);
+                        cell.setCellStyle(dateStyle);
+                    }
+                    else
+                    {
+                        cell.setCellValue(value.toString());
+                    }
+                }
+            }
+            wb.write(out);
+        }
+        finally
+        {
+            wb.dispose();
+            wb.close();
+        }
+    }
+}
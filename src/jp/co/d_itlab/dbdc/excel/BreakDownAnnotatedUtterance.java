@@ -32,11 +32,8 @@ public class BreakDownAnnotatedUtterance extends Utterance
     
     public BreakDownAnnotatedUtterance()
     {
-        addField(new Field<Integer>(FieldName.NumAnnotation, FieldType.Integer));
-        addField(new Field<Integer>(FieldName.NumO, FieldType.Integer));
-        addField(new Field<Integer>(FieldName.NumT, FieldType.Integer));
-        addField(new Field<Integer>(FieldName.NumX, FieldType.Integer));
-        addField(new Field<String>(FieldName.Breakdown, FieldType.String)); // [001]
+        defineFields(FieldName.NumAnnotation, FieldName.NumO, FieldName.NumT, FieldName.NumX);
+        defineFields(FieldName.Breakdown); // [001]
     }
     
     public static List<String> getFieldNames()
@@ -56,25 +53,22 @@ public class BreakDownAnnotatedUtterance extends Utterance
 
     public int getNumAnnotation()
     {
-        return getValue(FieldName.NumAnnotation);
+        return getIntValue(FieldName.NumAnnotation);
     }
     
     public double getNumO()
     {
-        Integer v = getValue(FieldName.NumO);
-        return v.doubleValue();
+        return getIntValue(FieldName.NumO);
     }
     
     public double getNumT()
     {
-        Integer v = getValue(FieldName.NumT);
-        return v.doubleValue();
+        return getIntValue(FieldName.NumT);
     }
     
     public double getNumX()
     {
-        Integer v = getValue(FieldName.NumX);
-        return v.doubleValue();
+        return getIntValue(FieldName.NumX);
     }
     
     public Utterance truncateAnnotation()
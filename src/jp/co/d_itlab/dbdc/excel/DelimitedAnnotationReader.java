@@ -0,0 +1,421 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.excel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Reads annotated utterances from a delimited text file such as CSV or TSV.
+ *
+ * Rows are decoded by {@link AnnotationRowDecoder} in the same manner as annotation sheets:
+ * the first line is skipped as the header, and reading stops at the first row whose dialogue ID is empty.
+ * Columns of the file are mapped to the columns of the decoder, so that files with other layouts can be read,
+ * and fields may be quoted with double quotes as in RFC 4180.
+ *
+ * The file is read through a file channel into a reused buffer and tokenized byte by byte,
+ * where strings are created only for mapped fields.
+ * A large file is split into chunks at line breaks out of quotes, which are parsed in parallel and concatenated in order.
+ */
+public class DelimitedAnnotationReader
+{
+    private final static byte QUOTE = '"';
+    private final static byte LF = '\n';
+    private final static byte CR = '\r';
+    private final static int BUFFER_SIZE = 1 << 20;
+    private final static long MIN_CHUNK_SIZE = 8L << 20;
+
+    private AnnotationRowDecoder decoder;
+    private byte delimiter;
+
+    // the column of the decoder for each column of the file, or -1 if the column is ignored
+    private int[] fieldOfColumn;
+    private boolean hasHeader = true;
+
+    // Number of threads
+    private int parallelism = 1;
+
+    /**
+     * @param delimiter - delimiter of fields, which must be an ASCII character
+     * @param columns - the column of the file for each column of the decoder, or -1 if it is absent
+     */
+    public DelimitedAnnotationReader(AnnotationRowDecoder decoder, char delimiter, int[] columns)
+    {
+        if (delimiter > 0x7F || delimiter == QUOTE || delimiter == LF || delimiter == CR)
+        {
+            throw new RuntimeException("Invalid delimiter: " + delimiter);
+        }
+        if (columns.length != AnnotationRowDecoder.NUM_COLUMNS || columns[0] < 0)
+        {
+            throw new RuntimeException("Invalid column mapping: " + Arrays.toString(columns));
+        }
+        this.decoder = decoder;
+        this.delimiter = (byte)delimiter;
+
+        int numColumns = 0;
+        for (int c : columns)
+        {
+            numColumns = Math.max(numColumns, c + 1);
+        }
+        fieldOfColumn = new int[numColumns];
+        Arrays.fill(fieldOfColumn, -1);
+        for (int i = 0; i < columns.length; i++)
+        {
+            if (columns[i] >= 0)
+            {
+                if (fieldOfColumn[columns[i]] >= 0)
+                {
+                    throw new RuntimeException("Column is mapped twice: " + columns[i]);
+                }
+                fieldOfColumn[columns[i]] = i;
+            }
+        }
+    }
+
+    public DelimitedAnnotationReader(AnnotationRowDecoder decoder, char delimiter)
+    {
+        this(decoder, delimiter, parseColumns(null));
+    }
+
+    /**
+     * Parses a column mapping given by comma-separated column numbers of the file (zero-based) in the order of the decoder,
+     * where "-" stands for an absent column.
+     * The identity mapping is returned for null or an empty string.
+     */
+    public static int[] parseColumns(String spec)
+    {
+        int[] columns = new int[AnnotationRowDecoder.NUM_COLUMNS];
+        if (spec == null || spec.trim().isEmpty())
+        {
+            for (int i = 0; i < columns.length; i++)
+            {
+                columns[i] = i;
+            }
+            return columns;
+        }
+
+        Arrays.fill(columns, -1);
+        String[] tokens = spec.split(",");
+        if (tokens.length > columns.length)
+        {
+            throw new RuntimeException("Too many columns: " + spec);
+        }
+        for (int i = 0; i < tokens.length; i++)
+        {
+            String token = tokens[i].trim();
+            columns[i] = "-".equals(token) ? -1 : Integer.parseInt(token);
+        }
+        return columns;
+    }
+
+    /**
+     * Returns true for files with the extension of CSV or TSV.
+     */
+    public static boolean isDelimitedText(File f)
+    {
+        String name = f.getName().toLowerCase();
+        return name.endsWith(".csv") || name.endsWith(".tsv");
+    }
+
+    /**
+     * Returns a tab for TSV files, and a comma for the others.
+     */
+    public static char delimiterOf(File f)
+    {
+        return f.getName().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+    }
+
+    public void setHeader(boolean hasHeader)
+    {
+        this.hasHeader = hasHeader;
+    }
+
+    /**
+     * Sets the number of threads used in parsing.
+     *
+     * @param parallelism - the number of threads (1 for sequential parsing)
+     */
+    public void setParallelism(int parallelism)
+    {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    public List<ErrorCategoryAnnotatedUtterance<String>> read(File f) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            long[] boundaries = split(channel, size);
+            List<ChunkParser> parsers = new ArrayList<>();
+            for (int c = 0; c + 1 < boundaries.length; c++)
+            {
+                parsers.add(new ChunkParser(channel, boundaries[c], boundaries[c + 1], c == 0 && hasHeader));
+            }
+
+            List<Chunk> chunks = new ArrayList<>();
+            if (parsers.size() == 1)
+            {
+                chunks.add(parsers.get(0).call());
+            }
+            else
+            {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try
+                {
+                    for (Future<Chunk> future : pool.invokeAll(parsers))
+                    {
+                        chunks.add(future.get());
+                    }
+                }
+                catch (InterruptedException | ExecutionException e)
+                {
+                    if (e.getCause() instanceof IOException)
+                    {
+                        throw (IOException)e.getCause();
+                    }
+                    throw new RuntimeException("Failed to parse a file: " + f.getAbsolutePath(), e);
+                }
+                finally
+                {
+                    pool.shutdown();
+                }
+            }
+
+            // rows following the end of data are dropped
+            List<ErrorCategoryAnnotatedUtterance<String>> utterances = new ArrayList<>();
+            for (Chunk chunk : chunks)
+            {
+                utterances.addAll(chunk.utterances);
+                if (chunk.isEnded)
+                {
+                    break;
+                }
+            }
+            return utterances;
+        }
+    }
+
+    /**
+     * Splits a file into chunks at line breaks out of quotes, and returns the boundaries of chunks.
+     * Quotes are counted from the beginning of the file, which is much cheaper than tokenizing.
+     */
+    private long[] split(FileChannel channel, long size) throws IOException
+    {
+        int numChunks = (int)Math.min(parallelism * 4L, size / MIN_CHUNK_SIZE);
+        if (parallelism == 1 || numChunks < 2)
+        {
+            return new long[] {0, size};
+        }
+
+        long[] boundaries = new long[numChunks + 1];
+        int n = 1;
+        long target = size / numChunks;
+        boolean inQuote = false;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = 0;
+        while (position < size && n < numChunks)
+        {
+            buffer.clear();
+            int length = channel.read(buffer, position);
+            if (length <= 0)
+            {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int k = 0; k < length; k++)
+            {
+                byte b = bytes[k];
+                if (b == QUOTE)
+                {
+                    inQuote = !inQuote;
+                }
+                else if (b == LF && !inQuote && position + k + 1 >= target && n < numChunks)
+                {
+                    boundaries[n++] = position + k + 1;
+                    target = size / numChunks * n;
+                }
+            }
+            position += length;
+        }
+        boundaries[n++] = size;
+        return Arrays.copyOf(boundaries, n);
+    }
+
+    /**
+     * Utterances of a chunk, and whether the end of data was found in the chunk.
+     */
+    private static class Chunk
+    {
+        private List<ErrorCategoryAnnotatedUtterance<String>> utterances = new ArrayList<>();
+        private boolean isEnded = false;
+    }
+
+    /**
+     * Tokenizes lines in [from, to) of a file.
+     */
+    private class ChunkParser implements Callable<Chunk>
+    {
+        private FileChannel channel;
+        private long from;
+        private long to;
+        private boolean skipHeader;
+
+        private Chunk chunk = new Chunk();
+        private Object[] values = new Object[AnnotationRowDecoder.NUM_COLUMNS];
+        private byte[] field = new byte[256];
+        private int fieldLength = 0;
+        private int column = 0;
+        private boolean isLineStarted = false;
+        private boolean inQuote = false;
+        private boolean isQuoteClosed = false;
+
+        private ChunkParser(FileChannel channel, long from, long to, boolean skipHeader)
+        {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+            this.skipHeader = skipHeader;
+        }
+
+        @Override
+        public Chunk call() throws IOException
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = from;
+            while (position < to && !chunk.isEnded)
+            {
+                buffer.clear();
+                buffer.limit((int)Math.min(BUFFER_SIZE, to - position));
+                int length = channel.read(buffer, position);
+                if (length <= 0)
+                {
+                    break;
+                }
+                byte[] bytes = buffer.array();
+                for (int k = 0; k < length && !chunk.isEnded; k++)
+                {
+                    accept(bytes[k]);
+                }
+                position += length;
+            }
+            if (isLineStarted && !chunk.isEnded)
+            {
+                // the last line without a line break
+                endField();
+                endLine();
+            }
+            return chunk;
+        }
+
+        private void accept(byte b)
+        {
+            if (inQuote)
+            {
+                if (b == QUOTE)
+                {
+                    inQuote = false;
+                    isQuoteClosed = true;
+                }
+                else
+                {
+                    append(b);
+                }
+                return;
+            }
+
+            boolean wasQuoteClosed = isQuoteClosed;
+            isQuoteClosed = false;
+            if (b == QUOTE)
+            {
+                // a doubled quote in a quoted field stands for a quote
+                if (wasQuoteClosed)
+                {
+                    append(b);
+                }
+                inQuote = true;
+                isLineStarted = true;
+            }
+            else if (b == delimiter)
+            {
+                endField();
+                isLineStarted = true;
+            }
+            else if (b == LF)
+            {
+                endField();
+                endLine();
+            }
+            else if (b != CR)
+            {
+                append(b);
+                isLineStarted = true;
+            }
+        }
+
+        private void append(byte b)
+        {
+            if (fieldLength == field.length)
+            {
+                field = Arrays.copyOf(field, field.length * 2);
+            }
+            field[fieldLength++] = b;
+        }
+
+        private void endField()
+        {
+            if (column < fieldOfColumn.length && fieldOfColumn[column] >= 0)
+            {
+                values[fieldOfColumn[column]] = fieldLength == 0 ? null : new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+            }
+            column++;
+            fieldLength = 0;
+        }
+
+        private void endLine()
+        {
+            if (skipHeader)
+            {
+                // skip header
+                skipHeader = false;
+            }
+            else if (values[0] == null)
+            {
+                // end of data
+                chunk.isEnded = true;
+            }
+            else
+            {
+                chunk.utterances.add(decoder.decode(values, false));
+            }
+            Arrays.fill(values, null);
+            column = 0;
+            isLineStarted = false;
+        }
+    }
+}
@@ -37,9 +37,7 @@ public class ErrorCategoryAnnotatedUtterance<L> extends BreakDownAnnotatedUttera
     
     public ErrorCategoryAnnotatedUtterance()
     {
-        addField(new Field<String>(FieldName.Annotator, FieldType.String));
-        addField(new Field<L>(FieldName.BreakdownCategory, FieldType.String));
-        addField(new Field<String>(FieldName.Remark, FieldType.String));
+        defineFields(FieldName.Annotator, FieldName.BreakdownCategory, FieldName.Remark);
         multiAnnotations = new ArrayList<>();
     }
     
@@ -12,34 +12,62 @@
 ///
 package jp.co.d_itlab.dbdc.excel;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum FieldName
 {
-    FileName("file-name"),
-    DialogueId("dialogue-id"),
-    GroupId("group-id"),
-    SpeakerId("speaker-id"),
-    Speaker("speaker"),
-    Time("time"),
-    TurnIndex("turn-index"),
-    Utterance("utterance"),
-    NumAnnotation("#annotation"),
-    NumO("#O"),
-    NumT("#T"),
-    NumX("#X"),
-    Annotator("annotator-id"),
-    Breakdown("breakdown"), 
-    BreakdownCategory("breakdown_category"),
-    Remark("Remark");
+    FileName("file-name", FieldType.String),
+    DialogueId("dialogue-id", FieldType.String),
+    GroupId("group-id", FieldType.String),
+    SpeakerId("speaker-id", FieldType.String),
+    Speaker("speaker", FieldType.String),
+    Time("time", FieldType.Date),
+    TurnIndex("turn-index", FieldType.Integer),
+    Utterance("utterance", FieldType.String),
+    NumAnnotation("#annotation", FieldType.Integer),
+    NumO("#O", FieldType.Integer),
+    NumT("#T", FieldType.Integer),
+    NumX("#X", FieldType.Integer),
+    Annotator("annotator-id", FieldType.String),
+    Breakdown("breakdown", FieldType.String), 
+    BreakdownCategory("breakdown_category", FieldType.String),
+    Remark("Remark", FieldType.String);
+    
+    private final static Map<String, FieldName> names = new HashMap<>();
+    
+    static
+    {
+        for (FieldName f : values())
+        {
+            names.put(f.name, f);
+        }
+    }
     
     private String name;
+    private FieldType type;
     
-    private FieldName(String name)
+    private FieldName(String name, FieldType type)
     {
         this.name = name;
+        this.type = type;
     }
     
     public String getName()
     {
         return name;
     }
+    
+    public FieldType getType()
+    {
+        return type;
+    }
+    
+    /**
+     * Returns the field of a given name, or null if no such field is defined.
+     */
+    public static FieldName of(String name)
+    {
+        return names.get(name);
+    }
 }
@@ -12,19 +12,38 @@
 ///
 package jp.co.d_itlab.dbdc.excel;
 
-import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Date;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 /**
  * This corresponds with a row in an annotation data file.
+ * 
+ * Values are held in slots indexed by the ordinal of {@link FieldName} instead of a map of {@link Field} objects.
+ * Integer fields and the time are held in primitive slots, so that they are not boxed unless requested by {@link #getValue(FieldName)}.
  */
 public class Utterance
 {   
     protected static List<FieldName> fieldNames = new ArrayList<>();
-    protected Map<String, Field<?>> fieldName2Field;
+    
+    // bit masks of the fields defined for this type of records and the fields whose values are set
+    private int defined;
+    private int assigned;
+    
+    // values of non-primitive fields indexed by the ordinal of the field name
+    private Object[] values;
+    
+    // primitive slots
+    private int turnIndex;
+    private int numAnnotation;
+    private int numO;
+    private int numT;
+    private int numX;
+    private long time;
+    
+    // key built from the file name, the dialogue ID, the group ID and the turn index, or null if any of them has been changed
+    private UtteranceKey key;
     //public String fileName;
     
     static
@@ -41,15 +60,8 @@ public class Utterance
 
     public Utterance()
     {
-        fieldName2Field = new HashMap<>();
-        addField(new Field<String>(FieldName.FileName, FieldType.String));
-        addField(new Field<String>(FieldName.DialogueId, FieldType.String));
-        addField(new Field<String>(FieldName.GroupId, FieldType.String));
-        addField(new Field<String>(FieldName.SpeakerId, FieldType.String));
-        addField(new Field<String>(FieldName.Speaker, FieldType.String));
-        addField(new Field<String>(FieldName.Time, FieldType.Date));
-        addField(new Field<Integer>(FieldName.TurnIndex, FieldType.Integer));
-        addField(new Field<String>(FieldName.Utterance, FieldType.String));
+        values = new Object[FieldName.values().length];
+        defineFields(FieldName.FileName, FieldName.DialogueId, FieldName.GroupId, FieldName.SpeakerId, FieldName.Speaker, FieldName.Time, FieldName.TurnIndex, FieldName.Utterance);
     }
     
     public static List<String> getFieldNames()
@@ -61,87 +73,229 @@ public class Utterance
         }
         return ret;
     }
+    
+    /**
+     * Defines fields of this type of records. Values of undefined fields are ignored.
+     */
+    protected void defineFields(FieldName... fieldNames)
+    {
+        for (FieldName f : fieldNames)
+        {
+            defined |= 1 << f.ordinal();
+        }
+    }
 
+    /**
+     * Defines a field, and sets its value if it has one.
+     */
     protected void addField(Field<?> f)
     {
-        fieldName2Field.put(f.getName(), f);
+        FieldName fieldName = FieldName.of(f.getName());
+        if (fieldName != null)
+        {
+            defineFields(fieldName);
+            if (f.getValue() != null)
+            {
+                setValue(fieldName, f.getValue());
+            }
+        }
     }
     
+    public boolean isDefined(FieldName fieldName)
+    {
+        return (defined & (1 << fieldName.ordinal())) != 0;
+    }
+    
+    /**
+     * Returns true if the value of a field is set.
+     */
+    public boolean hasValue(FieldName fieldName)
+    {
+        return (assigned & (1 << fieldName.ordinal())) != 0;
+    }
+    
+    /**
+     * Returns a field holding a copy of the value, which does not reflect later changes in either way.
+     */
     public Field<?> getField(String fieldName)
     {
-        if (fieldName2Field.containsKey(fieldName))
-        {
-            return fieldName2Field.get(fieldName);
-        }
-        else
+        FieldName f = FieldName.of(fieldName);
+        if (f == null)
         {
             return null;
         }
+        return getField(f);
     }
     
     public Field<?> getField(FieldName fieldName)
     {
-        return getField(fieldName.getName());
+        if (isDefined(fieldName))
+        {
+            Field<Object> field = new Field<>(fieldName, fieldName.getType());
+            field.setValue(getValue(fieldName));
+            return field;
+        }
+        else
+        {
+            return null;
+        }
     }
     
     public void setValue(FieldName fieldName, Object value)
     {
-        if (fieldName2Field.containsKey(fieldName.getName()))
+        if (isDefined(fieldName))
         {
-            Field<?> field = fieldName2Field.get(fieldName.getName());
-            switch (field.gettype())
+            switch (fieldName)
             {
-                case String:
-                    field.setValue(value);
+                case FileName:
+                case DialogueId:
+                case GroupId:
+                case TurnIndex:
+                    key = null;
                     break;
+                default:
+                    break;
+            }
+            
+            int bit = 1 << fieldName.ordinal();
+            if (value == null)
+            {
+                assigned &= ~bit;
+                values[fieldName.ordinal()] = null;
+                return;
+            }
+            
+            switch (fieldName.getType())
+            {
                 case Integer:
                     if (value instanceof String)
                     {
-                        Integer i = Integer.parseInt((String)value);
-                        field.setValue(i);
+                        setIntValue(fieldName, Integer.parseInt((String)value));
                     }
                     else
                     {
-                        field.setValue(value);
+                        setIntValue(fieldName, ((Number)value).intValue());
                     }
                     break;
                 case Double:
                     if (value instanceof String)
                     {
-                        Double d = Double.parseDouble((String)value);
-                        field.setValue(d);
+                        values[fieldName.ordinal()] = Double.parseDouble((String)value);
                     }
                     else
                     {
-                        field.setValue(value);
+                        values[fieldName.ordinal()] = value;
+                    }
+                    break;
+                case Date:
+                    if (fieldName == FieldName.Time)
+                    {
+                        time = ((Date)value).getTime();
+                    }
+                    else
+                    {
+                        values[fieldName.ordinal()] = value;
                     }
                     break;
                 default:
-                    field.setValue(value);
+                    values[fieldName.ordinal()] = value;
                     break;
             }
+            assigned |= bit;
         }
     }
     
-    public <T> T getValue(String fieldName)
+    private void setIntValue(FieldName fieldName, int value)
     {
-        if (fieldName2Field.containsKey(fieldName))
+        switch (fieldName)
         {
-            return (T)fieldName2Field.get(fieldName).getValue();
+            case TurnIndex:
+                turnIndex = value;
+                break;
+            case NumAnnotation:
+                numAnnotation = value;
+                break;
+            case NumO:
+                numO = value;
+                break;
+            case NumT:
+                numT = value;
+                break;
+            case NumX:
+                numX = value;
+                break;
+            default:
+                values[fieldName.ordinal()] = value;
+                break;
         }
-        else
+    }
+    
+    /**
+     * Returns the value of an integer field without boxing, or 0 if it is not set.
+     */
+    public int getIntValue(FieldName fieldName)
+    {
+        if (!hasValue(fieldName))
+        {
+            return 0;
+        }
+        switch (fieldName)
+        {
+            case TurnIndex:
+                return turnIndex;
+            case NumAnnotation:
+                return numAnnotation;
+            case NumO:
+                return numO;
+            case NumT:
+                return numT;
+            case NumX:
+                return numX;
+            default:
+                return ((Number)values[fieldName.ordinal()]).intValue();
+        }
+    }
+    
+    /**
+     * Returns the time in milliseconds since the epoch, or 0 if it is not set.
+     */
+    public long getTimeMillis()
+    {
+        return hasValue(FieldName.Time) ? time : 0L;
+    }
+    
+    public <T> T getValue(String fieldName)
+    {
+        FieldName f = FieldName.of(fieldName);
+        if (f == null)
         {
             return null;
         }
+        return getValue(f);
     }
     
+    @SuppressWarnings("unchecked")
     public <T> T getValue(FieldName fieldName)
     {
-        return getValue(fieldName.getName());
+        if (!hasValue(fieldName))
+        {
+            return null;
+        }
+        switch (fieldName.getType())
+        {
+            case Integer:
+                return (T)Integer.valueOf(getIntValue(fieldName));
+            case Date:
+                if (fieldName == FieldName.Time)
+                {
+                    return (T)new Date(time);
+                }
+                return (T)values[fieldName.ordinal()];
+            default:
+                return (T)values[fieldName.ordinal()];
+        }
     }
     
-
-     
     /* (non-Javadoc)
      * @see java.lang.Object#equals(java.lang.Object)
      */
@@ -151,13 +305,11 @@ public class Utterance
         if (obj instanceof Utterance)
         {
             Utterance u = (Utterance)obj;
-            String dialogueId = getValue(FieldName.DialogueId);
-            if (!dialogueId.equals(u.getValue(FieldName.DialogueId)))
+            if (!Objects.equals(getValue(FieldName.DialogueId), u.getValue(FieldName.DialogueId)))
             {
                 return false;
             }
-            String turnIndex = getValue(FieldName.TurnIndex);
-            if (!turnIndex.equals(u.getValue(FieldName.TurnIndex)))
+            if (!Objects.equals(getValue(FieldName.TurnIndex), u.getValue(FieldName.TurnIndex)))
             {
                 return false;
             }
@@ -169,17 +321,40 @@ public class Utterance
         }
     }
     
+    /* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(getValue(FieldName.DialogueId), getValue(FieldName.TurnIndex));
+    }
+    
+    /**
+     * Returns the key of an utterance, which is built once unless the fields composing it are changed.
+     */
+    public UtteranceKey getUtteranceKey()
+    {
+        UtteranceKey ret = key;
+        if (ret == null)
+        {
+            ret = UtteranceKey.of(this);
+            key = ret;
+        }
+        return ret;
+    }
+    
     /**
      * Returns the local ID of an utterance
      */
     public String getId()
     {
-        return MessageFormat.format("{0}-{1}-{2}-{3}", getValue(FieldName.FileName), getValue(FieldName.DialogueId), getValue(FieldName.GroupId), getValue(FieldName.TurnIndex));
+        return getUtteranceKey().toString();
     }
     
     public String getDialogueId()
     {
-        return MessageFormat.format("{0}-{1}-{2}", getValue(FieldName.FileName), getValue(FieldName.DialogueId), getValue(FieldName.GroupId));
+        return getUtteranceKey().getDialogueKey();
     }
     
     public Integer getTurnIndex()
@@ -192,8 +367,6 @@ public class Utterance
      */
     public String getKey()
     {
-        String filename = ((String)getValue(FieldName.FileName)).replaceAll("\\([^\\)]\\)", "").toUpperCase();
-        String key = MessageFormat.format("{0}-{1}", filename, getId());
-        return key;
+        return getUtteranceKey().getGlobalId();
     }
 }
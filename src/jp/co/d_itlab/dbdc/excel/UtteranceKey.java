@@ -0,0 +1,269 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.excel;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable key of an utterance, which consists of a file name, a dialogue ID, a group ID and a turn index.
+ *
+ * The hash code is computed once at construction, and the string representations are built at most once,
+ * so that a key is cheap to be used as a key of hash maps.
+ * {@link #toString()} is identical to {@link Utterance#getId()}.
+ * A key whose dialogue ID and group ID are integers is also encoded to a long value together with the ordinal of its file,
+ * which lets registries of subjects look it up without hashing and comparing strings (see {@link Encoder}).
+ */
+public final class UtteranceKey implements Comparable<UtteranceKey>
+{
+    private final static Pattern PARENTHESIZED = Pattern.compile("\\([^\\)]\\)");
+
+    // bits of each component in the long encoding
+    private final static int FILE_BITS = 10;
+    private final static int DIALOGUE_BITS = 32;
+    private final static int GROUP_BITS = 10;
+    private final static int TURN_BITS = 11;
+
+    private final String fileName;
+    private final String dialogueId;
+    private final String groupId;
+    private final Integer turnIndex;
+    private final int hash;
+
+    // the encoded dialogue ID, group ID and turn index, or -1 if they can not be encoded
+    private final long code;
+
+    // string representations built lazily
+    private String id;
+    private String dialogueKey;
+    private String globalId;
+
+    public UtteranceKey(String fileName, String dialogueId, String groupId, Integer turnIndex)
+    {
+        this.fileName = fileName;
+        this.dialogueId = dialogueId;
+        this.groupId = groupId;
+        this.turnIndex = turnIndex;
+        hash = Objects.hash(fileName, dialogueId, groupId, turnIndex);
+        code = encode(dialogueId, groupId, turnIndex);
+    }
+
+    /**
+     * Encodes the components other than the file name, where a missing group ID is encoded to 0.
+     */
+    private static long encode(String dialogueId, String groupId, Integer turnIndex)
+    {
+        long dialogue = parse(dialogueId, DIALOGUE_BITS);
+        long group = groupId == null ? 0 : parse(groupId, GROUP_BITS - 1);
+        if (dialogue < 0 || group < 0 || turnIndex == null || turnIndex < 0 || turnIndex >= 1 << TURN_BITS)
+        {
+            return -1;
+        }
+        if (groupId != null)
+        {
+            group++;
+        }
+        return (((dialogue << GROUP_BITS) | group) << TURN_BITS) | turnIndex;
+    }
+
+    /**
+     * Parses a non-negative integer without leading zeros which fits in given bits, or returns -1,
+     * so that distinct strings are never parsed to the same value.
+     */
+    private static long parse(String s, int bits)
+    {
+        if (s == null || s.isEmpty() || s.length() > 10 || (s.length() > 1 && s.charAt(0) == '0'))
+        {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value < 1L << bits ? value : -1;
+    }
+
+    /**
+     * Encodes the key to a non-negative long value together with the ordinal of the file.
+     *
+     * @param fileOrdinal - ordinal of the file given by a caller, which must be less than 1024
+     * @return the encoded value, or -1 if the key can not be encoded
+     */
+    public long toLong(int fileOrdinal)
+    {
+        if (code < 0 || fileOrdinal < 0 || fileOrdinal >= 1 << FILE_BITS)
+        {
+            return -1;
+        }
+        return ((long)fileOrdinal << (DIALOGUE_BITS + GROUP_BITS + TURN_BITS)) | code;
+    }
+
+    public static UtteranceKey of(Utterance u)
+    {
+        return new UtteranceKey(u.getValue(FieldName.FileName), u.getValue(FieldName.DialogueId), u.getValue(FieldName.GroupId), u.getValue(FieldName.TurnIndex));
+    }
+
+    public String getFileName()
+    {
+        return fileName;
+    }
+
+    public String getDialogueId()
+    {
+        return dialogueId;
+    }
+
+    public String getGroupId()
+    {
+        return groupId;
+    }
+
+    public Integer getTurnIndex()
+    {
+        return turnIndex;
+    }
+
+    /**
+     * Returns the ID of the dialogue which the utterance belongs to, which is identical to {@link Utterance#getDialogueId()}.
+     */
+    public String getDialogueKey()
+    {
+        String ret = dialogueKey;
+        if (ret == null)
+        {
+            ret = MessageFormat.format("{0}-{1}-{2}", fileName, dialogueId, groupId);
+            dialogueKey = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the global ID of the utterance, which is identical to {@link Utterance#getKey()}.
+     */
+    public String getGlobalId()
+    {
+        String ret = globalId;
+        if (ret == null)
+        {
+            String filename = PARENTHESIZED.matcher(fileName).replaceAll("").toUpperCase();
+            ret = MessageFormat.format("{0}-{1}", filename, toString());
+            globalId = ret;
+        }
+        return ret;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof UtteranceKey))
+        {
+            return false;
+        }
+        UtteranceKey k = (UtteranceKey)obj;
+        return hash == k.hash
+                && Objects.equals(turnIndex, k.turnIndex)
+                && Objects.equals(dialogueId, k.dialogueId)
+                && Objects.equals(groupId, k.groupId)
+                && Objects.equals(fileName, k.fileName);
+    }
+
+    /**
+     * Keys are ordered by the string representation.
+     */
+    @Override
+    public int compareTo(UtteranceKey k)
+    {
+        return toString().compareTo(k.toString());
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        String ret = id;
+        if (ret == null)
+        {
+            ret = MessageFormat.format("{0}-{1}-{2}-{3}", fileName, dialogueId, groupId, turnIndex);
+            id = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Encodes keys by {@link #toLong(int)}, assigning ordinals to file names in the order of appearance.
+     * Keys of files beyond the 1024th can not be encoded.
+     * Encoding may run concurrently, since new file names are registered under a lock.
+     */
+    public static class Encoder implements ToLongFunction<UtteranceKey>
+    {
+        private final Map<String, Integer> files = new ConcurrentHashMap<>();
+
+        @Override
+        public long applyAsLong(UtteranceKey k)
+        {
+            if (k.code < 0 || k.fileName == null)
+            {
+                return -1;
+            }
+            Integer f = files.get(k.fileName);
+            if (f == null)
+            {
+                f = register(k.fileName);
+            }
+            return k.toLong(f);
+        }
+
+        private synchronized int register(String fileName)
+        {
+            Integer f = files.get(fileName);
+            if (f != null)
+            {
+                return f;
+            }
+            if (files.size() >= 1 << FILE_BITS)
+            {
+                return -1;
+            }
+            files.put(fileName, files.size());
+            return files.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.json;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import jp.co.d_itlab.dbdc.excel.AnnotationRowDecoder;
+import jp.co.d_itlab.dbdc.excel.ErrorCategoryAnnotatedUtterance;
+import jp.co.d_itlab.dbdc.excel.FieldName;
+import jp.co.d_itlab.dbdc.logging.DateTimeFormat;
+
+/**
+ * Reads annotated utterances from dialogues in the JSON format of the Dialogue Breakdown Detection Challenge.
+ *
+ * A file holds a dialogue object or an array of them, where each dialogue has "dialogue-id", "group-id", "speaker-id"
+ * and "turns", and each turn has "turn-index", "speaker", "time", "utterance" and "annotations".
+ * The numbers of annotations and of O, T and X are counted from "breakdown" of the annotations.
+ * Breakdown categories of a turn are given by "error-category" (or "breakdown_category") of the turn,
+ * or of the annotation whose "annotator-id" is the annotator of the decoder.
+ * The file is read token by token, and only the turns of a dialogue are held until the dialogue ends.
+ */
+public class DialogueJsonReader
+{
+    private final static String[] CATEGORY_NAMES = {"error-category", FieldName.BreakdownCategory.getName()};
+
+    private AnnotationRowDecoder decoder;
+
+    public DialogueJsonReader(AnnotationRowDecoder decoder)
+    {
+        this.decoder = decoder;
+    }
+
+    /**
+     * Returns true for files with the extension of JSON.
+     */
+    public static boolean isJson(File f)
+    {
+        return f.getName().toLowerCase().endsWith(".json");
+    }
+
+    public List<ErrorCategoryAnnotatedUtterance<String>> read(File f) throws IOException
+    {
+        try (Reader reader = new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))
+        {
+            return read(reader);
+        }
+    }
+
+    public List<ErrorCategoryAnnotatedUtterance<String>> read(Reader reader) throws IOException
+    {
+        List<ErrorCategoryAnnotatedUtterance<String>> utterances = new ArrayList<>();
+        JsonPullParser parser = new JsonPullParser(reader);
+        JsonPullParser.Token token = parser.next();
+        if (token == JsonPullParser.Token.BEGIN_ARRAY)
+        {
+            while ((token = parser.next()) != JsonPullParser.Token.END_ARRAY)
+            {
+                expect(parser, token, JsonPullParser.Token.BEGIN_OBJECT);
+                readDialogue(parser, utterances);
+            }
+        }
+        else
+        {
+            expect(parser, token, JsonPullParser.Token.BEGIN_OBJECT);
+            readDialogue(parser, utterances);
+        }
+        return utterances;
+    }
+
+    private void readDialogue(JsonPullParser parser, List<ErrorCategoryAnnotatedUtterance<String>> utterances) throws IOException
+    {
+        String dialogueId = null;
+        String groupId = null;
+        String speakerId = null;
+        List<Object[]> turns = new ArrayList<>();
+
+        JsonPullParser.Token token;
+        while ((token = parser.next()) == JsonPullParser.Token.NAME)
+        {
+            switch (parser.getText())
+            {
+                case "dialogue-id":
+                    dialogueId = readText(parser);
+                    break;
+                case "group-id":
+                    groupId = readText(parser);
+                    break;
+                case "speaker-id":
+                    speakerId = readText(parser);
+                    break;
+                case "turns":
+                    expect(parser, parser.next(), JsonPullParser.Token.BEGIN_ARRAY);
+                    while ((token = parser.next()) != JsonPullParser.Token.END_ARRAY)
+                    {
+                        expect(parser, token, JsonPullParser.Token.BEGIN_OBJECT);
+                        turns.add(readTurn(parser));
+                    }
+                    break;
+                default:
+                    parser.skipValue();
+                    break;
+            }
+        }
+        expect(parser, token, JsonPullParser.Token.END_OBJECT);
+
+        // identifiers of the dialogue may follow its turns
+        for (Object[] values : turns)
+        {
+            values[0] = dialogueId;
+            values[1] = groupId;
+            values[2] = speakerId;
+            utterances.add(decoder.decode(values, false));
+        }
+    }
+
+    /**
+     * Returns the values of a turn in the order of the columns of the decoder.
+     */
+    private Object[] readTurn(JsonPullParser parser) throws IOException
+    {
+        Object[] values = new Object[AnnotationRowDecoder.NUM_COLUMNS];
+        int numAnnotations = 0;
+        int numO = 0;
+        int numT = 0;
+        int numX = 0;
+        String categories = null;
+        String annotatorCategories = null;
+
+        JsonPullParser.Token token;
+        while ((token = parser.next()) == JsonPullParser.Token.NAME)
+        {
+            String name = parser.getText();
+            switch (name)
+            {
+                case "turn-index":
+                    values[5] = readText(parser);
+                    break;
+                case "speaker":
+                    values[3] = readText(parser);
+                    break;
+                case "time":
+                    String time = readText(parser);
+                    values[4] = time == null ? null : DateTimeFormat.parseYYYYMMDDHHMMSS(time);
+                    break;
+                case "utterance":
+                    values[6] = readText(parser);
+                    break;
+                case "annotations":
+                    expect(parser, parser.next(), JsonPullParser.Token.BEGIN_ARRAY);
+                    while ((token = parser.next()) != JsonPullParser.Token.END_ARRAY)
+                    {
+                        expect(parser, token, JsonPullParser.Token.BEGIN_OBJECT);
+                        numAnnotations++;
+                        String annotator = null;
+                        String breakdown = null;
+                        String labels = null;
+                        while ((token = parser.next()) == JsonPullParser.Token.NAME)
+                        {
+                            String key = parser.getText();
+                            if ("annotator-id".equals(key))
+                            {
+                                annotator = readText(parser);
+                            }
+                            else if ("breakdown".equals(key))
+                            {
+                                breakdown = readText(parser);
+                            }
+                            else if (isCategoryName(key))
+                            {
+                                labels = readLabels(parser);
+                            }
+                            else
+                            {
+                                parser.skipValue();
+                            }
+                        }
+                        expect(parser, token, JsonPullParser.Token.END_OBJECT);
+
+                        if ("O".equals(breakdown))
+                        {
+                            numO++;
+                        }
+                        else if ("T".equals(breakdown))
+                        {
+                            numT++;
+                        }
+                        else if ("X".equals(breakdown))
+                        {
+                            numX++;
+                        }
+                        if (labels != null && decoder.getAnnotator().equals(annotator))
+                        {
+                            annotatorCategories = labels;
+                        }
+                    }
+                    break;
+                default:
+                    if (isCategoryName(name))
+                    {
+                        categories = readLabels(parser);
+                    }
+                    else
+                    {
+                        parser.skipValue();
+                    }
+                    break;
+            }
+        }
+        expect(parser, token, JsonPullParser.Token.END_OBJECT);
+
+        values[7] = String.valueOf(numAnnotations);
+        values[8] = String.valueOf(numO);
+        values[9] = String.valueOf(numT);
+        values[10] = String.valueOf(numX);
+        values[11] = annotatorCategories != null ? annotatorCategories : categories;
+        return values;
+    }
+
+    private static boolean isCategoryName(String name)
+    {
+        for (String categoryName : CATEGORY_NAMES)
+        {
+            if (categoryName.equals(name))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads a string, a number or a boolean as a text, or returns null for the other values.
+     */
+    private static String readText(JsonPullParser parser) throws IOException
+    {
+        switch (parser.next())
+        {
+            case STRING:
+            case NUMBER:
+            case BOOLEAN:
+                return parser.getText();
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                skipRest(parser);
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Reads labels given by a string or an array of strings, which are concatenated by "|".
+     */
+    private static String readLabels(JsonPullParser parser) throws IOException
+    {
+        JsonPullParser.Token token = parser.next();
+        if (token == JsonPullParser.Token.STRING)
+        {
+            return parser.getText();
+        }
+        else if (token != JsonPullParser.Token.BEGIN_ARRAY)
+        {
+            if (token == JsonPullParser.Token.BEGIN_OBJECT)
+            {
+                skipRest(parser);
+            }
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        while ((token = parser.next()) != JsonPullParser.Token.END_ARRAY)
+        {
+            if (token == JsonPullParser.Token.STRING)
+            {
+                if (sb.length() > 0)
+                {
+                    sb.append("|");
+                }
+                sb.append(parser.getText());
+            }
+            else if (token == JsonPullParser.Token.BEGIN_OBJECT || token == JsonPullParser.Token.BEGIN_ARRAY)
+            {
+                skipRest(parser);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Skips the rest of an object or an array whose beginning has been read.
+     */
+    private static void skipRest(JsonPullParser parser) throws IOException
+    {
+        int level = 1;
+        while (level > 0)
+        {
+            switch (parser.next())
+            {
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    level++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    level--;
+                    break;
+                case END_DOCUMENT:
+                    throw new RuntimeException("Unexpected end of document at line " + parser.getLine() + ".");
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void expect(JsonPullParser parser, JsonPullParser.Token token, JsonPullParser.Token expected)
+    {
+        if (token != expected)
+        {
+            throw new RuntimeException(expected + " is expected but " + token + " is found at line " + parser.getLine() + ".");
+        }
+    }
+}
@@ -0,0 +1,344 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser of JSON, which reads tokens one by one from a reader without building a tree.
+ *
+ * Names of members are returned as {@link Token#NAME}, and the text of a name, a string, a number or a boolean
+ * is given by {@link #getText()} after the token is read.
+ * Colons and commas are consumed by the parser.
+ */
+public class JsonPullParser implements Closeable
+{
+    public enum Token
+    {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private final static int BUFFER_SIZE = 8192;
+
+    private Reader reader;
+    private char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private int line = 1;
+
+    // stack of containers, where true stands for an object
+    private boolean[] containers = new boolean[32];
+    private int depth = 0;
+    private boolean expectName = false;
+
+    private StringBuilder text = new StringBuilder();
+
+    public JsonPullParser(Reader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the text of the last name, string, number or boolean.
+     */
+    public String getText()
+    {
+        return text.toString();
+    }
+
+    public int getLine()
+    {
+        return line;
+    }
+
+    public Token next() throws IOException
+    {
+        int c = skipSeparators();
+        if (c < 0)
+        {
+            if (depth > 0)
+            {
+                throw error("Unexpected end of document");
+            }
+            return Token.END_DOCUMENT;
+        }
+
+        if (expectName && c != '}')
+        {
+            if (c != '"')
+            {
+                throw error("Name is expected");
+            }
+            readString();
+            if (skipWhitespaces() != ':')
+            {
+                throw error("Colon is expected");
+            }
+            expectName = false;
+            return Token.NAME;
+        }
+
+        switch (c)
+        {
+            case '{':
+                push(true);
+                expectName = true;
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push(false);
+                return Token.BEGIN_ARRAY;
+            case '}':
+            case ']':
+                if (depth == 0 || containers[depth - 1] != (c == '}'))
+                {
+                    throw error("Unexpected " + (char)c);
+                }
+                depth--;
+                expectName = false;
+                return c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+            case '"':
+                readString();
+                return Token.STRING;
+            case 't':
+            case 'f':
+            case 'n':
+                readLiteral(c);
+                return c == 'n' ? Token.NULL : Token.BOOLEAN;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9'))
+                {
+                    readNumber(c);
+                    return Token.NUMBER;
+                }
+                throw error("Unexpected " + (char)c);
+        }
+    }
+
+    /**
+     * Skips the value following a name or in an array, including nested objects and arrays.
+     */
+    public void skipValue() throws IOException
+    {
+        int level = 0;
+        do
+        {
+            switch (next())
+            {
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    level++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    level--;
+                    break;
+                case END_DOCUMENT:
+                    throw error("Unexpected end of document");
+                default:
+                    break;
+            }
+        }
+        while (level > 0);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        reader.close();
+    }
+
+    private void push(boolean isObject)
+    {
+        if (depth == containers.length)
+        {
+            containers = Arrays.copyOf(containers, depth * 2);
+        }
+        containers[depth++] = isObject;
+    }
+
+    /**
+     * Skips whitespaces, colons and commas, and returns the next character.
+     * A comma in an object is followed by a name.
+     */
+    private int skipSeparators() throws IOException
+    {
+        int c;
+        while ((c = skipWhitespaces()) == ',')
+        {
+            if (depth == 0)
+            {
+                throw error("Unexpected ,");
+            }
+            expectName = containers[depth - 1];
+        }
+        return c;
+    }
+
+    private int skipWhitespaces() throws IOException
+    {
+        int c;
+        do
+        {
+            c = read();
+            if (c == '\n')
+            {
+                line++;
+            }
+        }
+        while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+        return c;
+    }
+
+    private int read() throws IOException
+    {
+        if (position == limit)
+        {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0)
+            {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void unread()
+    {
+        position--;
+    }
+
+    private void readString() throws IOException
+    {
+        text.setLength(0);
+        while (true)
+        {
+            // copy a run of plain characters at once
+            int start = position;
+            while (position < limit)
+            {
+                char c = buffer[position];
+                if (c == '"' || c == '\\')
+                {
+                    break;
+                }
+                position++;
+            }
+            text.append(buffer, start, position - start);
+
+            int c = read();
+            if (c < 0)
+            {
+                throw error("Unterminated string");
+            }
+            else if (c == '"')
+            {
+                return;
+            }
+            else if (c == '\\')
+            {
+                readEscape();
+            }
+            else
+            {
+                // the buffer was exhausted
+                text.append((char)c);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException
+    {
+        int c = read();
+        switch (c)
+        {
+            case '"':
+            case '\\':
+            case '/':
+                text.append((char)c);
+                break;
+            case 'b':
+                text.append('\b');
+                break;
+            case 'f':
+                text.append('\f');
+                break;
+            case 'n':
+                text.append('\n');
+                break;
+            case 'r':
+                text.append('\r');
+                break;
+            case 't':
+                text.append('\t');
+                break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++)
+                {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0)
+                    {
+                        throw error("Invalid unicode escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                text.append((char)code);
+                break;
+            default:
+                throw error("Invalid escape");
+        }
+    }
+
+    private void readNumber(int first) throws IOException
+    {
+        text.setLength(0);
+        text.append((char)first);
+        int c;
+        while ((c = read()) >= 0)
+        {
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')
+            {
+                text.append((char)c);
+            }
+            else
+            {
+                unread();
+                break;
+            }
+        }
+    }
+
+    private void readLiteral(int first) throws IOException
+    {
+        String literal = first == 't' ? "true" : first == 'f' ? "false" : "null";
+        for (int i = 1; i < literal.length(); i++)
+        {
+            if (read() != literal.charAt(i))
+            {
+                throw error("Invalid literal");
+            }
+        }
+        text.setLength(0);
+        text.append(literal);
+    }
+
+    private RuntimeException error(String message)
+    {
+        return new RuntimeException(message + " at line " + line + ".");
+    }
+}
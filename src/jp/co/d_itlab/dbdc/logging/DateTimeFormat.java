@@ -24,6 +24,7 @@ public final class DateTimeFormat {
     private static Object sycObj = new Object();
     private static SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd_HHmmss");
     private static SimpleDateFormat format6 = new SimpleDateFormat("dd.MM.yyyy HH:mm:ss");
+    private static SimpleDateFormat format7 = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 	
 	public static String getCurrentTime()
 	{
@@ -68,5 +69,22 @@ public final class DateTimeFormat {
         }
     }
 	
+	/**
+	 * Parses a date in "yyyy-MM-dd HH:mm:ss" form, or returns null if it can not be parsed.
+	 */
+	public static Date parseYYYYMMDDHHMMSS(String date)
+    {
+	    synchronized (sycObj)
+        {
+	        try
+            {
+                return format7.parse(date);
+            }
+            catch (Exception e)
+            {
+                return null;
+            }
+        }
+    }
 	
 }
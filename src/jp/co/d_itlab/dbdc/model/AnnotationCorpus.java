@@ -0,0 +1,380 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.d_itlab.dbdc.excel.UtteranceKey;
+import jp.co.d_itlab.iaa.AnnotationMatrix;
+import jp.co.d_itlab.iaa.MappedAnnotationMatrix;
+import jp.co.d_itlab.iaa.SubjectIndex;
+
+/**
+ * Packed binary corpus of annotation matrices, which is read by mapping the file into memory.
+ *
+ * The file consists of the following sections, each of which starts at a multiple of 8 bytes:
+ * <pre>
+ * header     : magic, version, A, Q, N, D (int) and offsets of the other sections (long)
+ * dictionary : D + 1 offsets of strings (int) followed by UTF-8 bytes of the strings,
+ *              i.e. A annotators, Q labels and components of subjects
+ * subjects   : N x (file, dialogue ID, group ID, turn index) (int), where strings are given by ordinals in the dictionary
+ * scores     : A x N x Q scores (double)
+ * assigned   : A x ceil(N x Q / 64) bits of assigned scores (long)
+ * </pre>
+ * Matrices opened from a file are views of the mapped scores, so that the scores are neither copied into the heap
+ * nor read until they are accessed, and processes opening the same file share the page cache.
+ * Labels out of the category are not written.
+ */
+public class AnnotationCorpus
+{
+    public final static int MAGIC = 0x57464B42;
+    public final static int VERSION = 1;
+
+    private final static int HEADER_SIZE = 64;
+    private final static int NULL_ORDINAL = -1;
+    private final static int NULL_TURN_INDEX = Integer.MIN_VALUE;
+
+    private List<String> annotators;
+    private List<String> category;
+    private SubjectIndex<UtteranceKey> subjects;
+    private Map<String, AnnotationMatrix<UtteranceKey, String>> matrices;
+
+    private AnnotationCorpus(List<String> annotators, List<String> category, SubjectIndex<UtteranceKey> subjects,
+            Map<String, AnnotationMatrix<UtteranceKey, String>> matrices)
+    {
+        this.annotators = annotators;
+        this.category = category;
+        this.subjects = subjects;
+        this.matrices = matrices;
+    }
+
+    public List<String> getAnnotators()
+    {
+        return annotators;
+    }
+
+    public List<String> getCategory()
+    {
+        return category;
+    }
+
+    public int getNumSubjects()
+    {
+        return subjects.size();
+    }
+
+    public SubjectIndex<UtteranceKey> getSubjectIndex()
+    {
+        return subjects;
+    }
+
+    /**
+     * Returns read-only matrices of all annotators in the order of the file, which share the registry of subjects.
+     */
+    public Map<String, AnnotationMatrix<UtteranceKey, String>> getAnnotationMatrices()
+    {
+        return matrices;
+    }
+
+    /**
+     * Returns matrices of given annotators in the given order, where annotators not in the corpus are ignored.
+     */
+    public Map<String, AnnotationMatrix<UtteranceKey, String>> getAnnotationMatrices(List<String> aids)
+    {
+        Map<String, AnnotationMatrix<UtteranceKey, String>> ret = new LinkedHashMap<>();
+        for (String aid : aids)
+        {
+            if (matrices.containsKey(aid))
+            {
+                ret.put(aid, matrices.get(aid));
+            }
+        }
+        return Collections.unmodifiableMap(ret);
+    }
+
+    /**
+     * Writes annotation matrices, which must have the same category, over the union of their subjects.
+     */
+    public static void write(Map<String, AnnotationMatrix<UtteranceKey, String>> data, File f) throws IOException
+    {
+        if (data.isEmpty())
+        {
+            throw new RuntimeException("No annotation matrix to be written.");
+        }
+
+        List<String> annotators = new ArrayList<>(data.keySet());
+        List<AnnotationMatrix<UtteranceKey, String>> matrices = new ArrayList<>();
+        SubjectIndex<UtteranceKey> subjects = new SubjectIndex<>(new UtteranceKey.Encoder());
+        for (String aid : annotators)
+        {
+            AnnotationMatrix<UtteranceKey, String> m = data.get(aid);
+            if (!m.getCategory().equals(data.get(annotators.get(0)).getCategory()))
+            {
+                throw new RuntimeException("Categories of annotators are different: " + annotators.get(0) + ", " + aid);
+            }
+            matrices.add(m);
+            for (UtteranceKey k : m.getData())
+            {
+                subjects.intern(k);
+            }
+        }
+        List<String> category = matrices.get(0).getCategory();
+        int A = annotators.size();
+        int Q = category.size();
+        int N = subjects.size();
+
+        // dictionary of strings
+        SubjectIndex<String> strings = new SubjectIndex<>();
+        List<String> dictionary = new ArrayList<>();
+        for (String s : annotators)
+        {
+            dictionary.add(s);
+        }
+        for (String s : category)
+        {
+            dictionary.add(s);
+        }
+        int[] components = new int[N * 4];
+        for (int i = 0; i < N; i++)
+        {
+            UtteranceKey k = subjects.get(i);
+            components[i * 4] = encode(strings, dictionary, k.getFileName());
+            components[i * 4 + 1] = encode(strings, dictionary, k.getDialogueId());
+            components[i * 4 + 2] = encode(strings, dictionary, k.getGroupId());
+            components[i * 4 + 3] = k.getTurnIndex() == null ? NULL_TURN_INDEX : k.getTurnIndex();
+        }
+        int D = dictionary.size();
+        List<byte[]> bytes = new ArrayList<>(D);
+        int numBytes = 0;
+        for (String s : dictionary)
+        {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            bytes.add(b);
+            numBytes += b.length;
+        }
+
+        long stringOffset = HEADER_SIZE;
+        long subjectOffset = align(stringOffset + 4L * (D + 1) + numBytes);
+        long scoreOffset = align(subjectOffset + 16L * N);
+        long assignedOffset = scoreOffset + 8L * A * N * Q;
+        int numWords = numWords(N, Q);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16)))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(A);
+            out.writeInt(Q);
+            out.writeInt(N);
+            out.writeInt(D);
+            out.writeLong(stringOffset);
+            out.writeLong(subjectOffset);
+            out.writeLong(scoreOffset);
+            out.writeLong(assignedOffset);
+            pad(out, stringOffset);
+
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] b : bytes)
+            {
+                offset += b.length;
+                out.writeInt(offset);
+            }
+            for (byte[] b : bytes)
+            {
+                out.write(b);
+            }
+            pad(out, subjectOffset);
+
+            for (int c : components)
+            {
+                out.writeInt(c);
+            }
+            pad(out, scoreOffset);
+
+            for (AnnotationMatrix<UtteranceKey, String> m : matrices)
+            {
+                for (int s = 0; s < N; s++)
+                {
+                    int i = m.indexOfData(subjects.get(s));
+                    for (int j = 0; j < Q; j++)
+                    {
+                        out.writeDouble(i < 0 ? 0.0 : m.get(i, j));
+                    }
+                }
+            }
+
+            for (AnnotationMatrix<UtteranceKey, String> m : matrices)
+            {
+                long[] words = new long[numWords];
+                for (int s = 0; s < N; s++)
+                {
+                    int i = m.indexOfData(subjects.get(s));
+                    for (int j = 0; i >= 0 && j < Q; j++)
+                    {
+                        if (m.contains(i, j))
+                        {
+                            int index = s * Q + j;
+                            words[index >>> 6] |= 1L << (index & 63);
+                        }
+                    }
+                }
+                for (long w : words)
+                {
+                    out.writeLong(w);
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a corpus file into memory.
+     * The file must not be modified while it is opened.
+     */
+    public static AnnotationCorpus open(File f) throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r");
+             FileChannel channel = raf.getChannel())
+        {
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC)
+            {
+                throw new RuntimeException("Not an annotation corpus: " + f.getAbsolutePath());
+            }
+            int version = header.getInt();
+            if (version != VERSION)
+            {
+                throw new RuntimeException("Unsupported version of an annotation corpus: " + version);
+            }
+            int A = header.getInt();
+            int Q = header.getInt();
+            int N = header.getInt();
+            int D = header.getInt();
+            long stringOffset = header.getLong();
+            long subjectOffset = header.getLong();
+            long scoreOffset = header.getLong();
+            long assignedOffset = header.getLong();
+
+            // dictionary
+            ByteBuffer buffer = map(channel, stringOffset, subjectOffset - stringOffset);
+            int[] offsets = new int[D + 1];
+            for (int d = 0; d <= D; d++)
+            {
+                offsets[d] = buffer.getInt();
+            }
+            int base = buffer.position();
+            List<String> dictionary = new ArrayList<>(D);
+            for (int d = 0; d < D; d++)
+            {
+                byte[] b = new byte[offsets[d + 1] - offsets[d]];
+                buffer.position(base + offsets[d]);
+                buffer.get(b);
+                dictionary.add(new String(b, StandardCharsets.UTF_8));
+            }
+            List<String> annotators = Collections.unmodifiableList(new ArrayList<>(dictionary.subList(0, A)));
+            List<String> category = Collections.unmodifiableList(new ArrayList<>(dictionary.subList(A, A + Q)));
+
+            // subjects
+            buffer = map(channel, subjectOffset, 16L * N);
+            SubjectIndex<UtteranceKey> subjects = new SubjectIndex<>(N, new UtteranceKey.Encoder());
+            for (int i = 0; i < N; i++)
+            {
+                String fileName = decode(dictionary, buffer.getInt());
+                String dialogueId = decode(dictionary, buffer.getInt());
+                String groupId = decode(dictionary, buffer.getInt());
+                int turnIndex = buffer.getInt();
+                subjects.intern(new UtteranceKey(fileName, dialogueId, groupId, turnIndex == NULL_TURN_INDEX ? null : turnIndex));
+            }
+            if (subjects.size() != N)
+            {
+                throw new RuntimeException("Duplicated subjects in an annotation corpus: " + f.getAbsolutePath());
+            }
+
+            // views of scores
+            int numWords = numWords(N, Q);
+            Map<String, AnnotationMatrix<UtteranceKey, String>> matrices = new LinkedHashMap<>();
+            for (int a = 0; a < A; a++)
+            {
+                MappedByteBuffer scores = map(channel, scoreOffset + 8L * a * N * Q, 8L * N * Q);
+                MappedByteBuffer assigned = map(channel, assignedOffset + 8L * a * numWords, 8L * numWords);
+                matrices.put(annotators.get(a), new MappedAnnotationMatrix<>(annotators.get(a), subjects, category,
+                        scores.asDoubleBuffer(), assigned.asLongBuffer()));
+            }
+
+            return new AnnotationCorpus(annotators, category, subjects, Collections.unmodifiableMap(matrices));
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, long size) throws IOException
+    {
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new RuntimeException("A section of an annotation corpus is too large to be mapped: " + size);
+        }
+        // the mapping stays valid after the channel is closed
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+    }
+
+    private static int encode(SubjectIndex<String> strings, List<String> dictionary, String s)
+    {
+        if (s == null)
+        {
+            return NULL_ORDINAL;
+        }
+        int n = strings.size();
+        int ordinal = strings.intern(s);
+        if (ordinal == n)
+        {
+            dictionary.add(s);
+        }
+        // components follow annotators and labels in the dictionary
+        return dictionary.size() - strings.size() + ordinal;
+    }
+
+    private static String decode(List<String> dictionary, int ordinal)
+    {
+        return ordinal == NULL_ORDINAL ? null : dictionary.get(ordinal);
+    }
+
+    private static int numWords(int N, int Q)
+    {
+        return (int)(((long)N * Q + 63) / 64);
+    }
+
+    private static long align(long offset)
+    {
+        return (offset + 7) & ~7L;
+    }
+
+    private static void pad(DataOutputStream out, long offset) throws IOException
+    {
+        while (out.size() < offset)
+        {
+            out.writeByte(0);
+        }
+    }
+}
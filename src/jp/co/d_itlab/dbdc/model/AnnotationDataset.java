@@ -13,14 +13,19 @@
 package jp.co.d_itlab.dbdc.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import jp.co.d_itlab.dbdc.excel.ErrorCategoryAnnotatedUtterance;
 import jp.co.d_itlab.dbdc.excel.FieldName;
+import jp.co.d_itlab.dbdc.excel.UtteranceKey;
 import jp.co.d_itlab.dbdc.logging.FootPrint;
 import jp.co.d_itlab.iaa.AnnotationMatrix;
+import jp.co.d_itlab.iaa.SubjectIndex;
 
 /**
  * Annotation dataset
@@ -29,11 +34,14 @@ import jp.co.d_itlab.iaa.AnnotationMatrix;
  */
 public class AnnotationDataset<L>
 {
-    private Map<String, Map<String, ErrorCategoryAnnotatedUtterance<L>>> annotations;
-    private List<String> uids;
+    private Map<String, Map<UtteranceKey, ErrorCategoryAnnotatedUtterance<L>>> annotations;
+    private SubjectIndex<UtteranceKey> uids;
     private ErrorCategory<L> category;
     private List<Double> weights;
     
+    // annotation matrices built from the current annotations, or null if they have been modified
+    private Map<String, AnnotationMatrix<UtteranceKey, L>> matrices = null;
+    
     /**
      * Weights are put on each labels equally.
      */
@@ -52,7 +60,7 @@ public class AnnotationDataset<L>
         this.category = category;
         this.weights = weights;
         annotations = new HashMap<>();
-        uids = new ArrayList<>();
+        uids = new SubjectIndex<>(new UtteranceKey.Encoder());
     }
     
     public int getNumAnnotators()
@@ -67,10 +75,21 @@ public class AnnotationDataset<L>
     
     public String[] getAnnotatedUtteranceIds()
     {
-        return uids.toArray(new String[0]);
+        List<UtteranceKey> keys = uids.asList();
+        String[] ids = new String[keys.size()];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = keys.get(i).toString();
+        }
+        return ids;
     }
     
-    public Map<String, ErrorCategoryAnnotatedUtterance<L>> getAnnotations(String annotatorId)
+    public List<UtteranceKey> getAnnotatedUtteranceKeys()
+    {
+        return uids.asList();
+    }
+    
+    public Map<UtteranceKey, ErrorCategoryAnnotatedUtterance<L>> getAnnotations(String annotatorId)
     {
         if (annotations.containsKey(annotatorId))
         {
@@ -110,15 +129,15 @@ public class AnnotationDataset<L>
         boolean isBreakdown = BreakdownClassifier.isBreakdown(u);
         if (isBreakdown)
         {
-            if (!annotations.containsKey(u.getValue(FieldName.Annotator)))
-            {
-                annotations.put(u.getValue(FieldName.Annotator), new HashMap<>());
-            }
-            annotations.get(u.getValue(FieldName.Annotator)).put(u.getId(), u);
-            if (!uids.contains(u.getId()))
+            String aid = u.getValue(FieldName.Annotator);
+            UtteranceKey uid = u.getUtteranceKey();
+            if (!annotations.containsKey(aid))
             {
-                uids.add(u.getId());
+                annotations.put(aid, new HashMap<>());
             }
+            annotations.get(aid).put(uid, u);
+            matrices = null;
+            uids.intern(uid);
             
             // Validation on annotation data
             if (u.getBdLabels() == null)
@@ -129,10 +148,15 @@ public class AnnotationDataset<L>
         return isBreakdown;
     }
     
-    public Map<String, AnnotationMatrix<String, L>> getAnnotationMatrices(List<String> aids)
+    /**
+     * Returns annotation matrices of given annotators.
+     * The returned map is an unmodifiable view on the cached matrices in the order of given annotators,
+     * which must not be modified by callers.
+     */
+    public Map<String, AnnotationMatrix<UtteranceKey, L>> getAnnotationMatrices(List<String> aids)
     {
-        Map<String, AnnotationMatrix<String, L>> ret = new HashMap<>();
-        Map<String, AnnotationMatrix<String, L>> all = getAnnotationMatrices();
+        Map<String, AnnotationMatrix<UtteranceKey, L>> ret = new LinkedHashMap<>();
+        Map<String, AnnotationMatrix<UtteranceKey, L>> all = getAnnotationMatrices();
         for (String aid : aids)
         {
             if (all.containsKey(aid))
@@ -140,54 +164,73 @@ public class AnnotationDataset<L>
                 ret.put(aid, all.get(aid));
             }
         }
-        return ret;
+        return Collections.unmodifiableMap(ret);
     }
     
-   
-    public Map<String, AnnotationMatrix<String, L>> getAnnotationMatrices()
+    /**
+     * Returns annotation matrices of all annotators.
+     * Matrices are built in parallel for each annotator and cached until a new annotation is added.
+     */
+    public Map<String, AnnotationMatrix<UtteranceKey, L>> getAnnotationMatrices()
     {
-        Map<String, AnnotationMatrix<String, L>> ret = new HashMap<>();
-        for (String aid : annotations.keySet())
+        Map<String, AnnotationMatrix<UtteranceKey, L>> ret = matrices;
+        if (ret == null)
         {
-            AnnotationMatrix<String, L> m = new AnnotationMatrix<>(aid, uids, category);
+            // all matrices share the registry of utterance IDs, so that utterances are joined by their ordinals
+            List<String> aids = new ArrayList<>(annotations.keySet());
+            List<AnnotationMatrix<UtteranceKey, L>> built = aids.parallelStream()
+                    .map(aid -> buildAnnotationMatrix(aid))
+                    .collect(Collectors.toList());
             
-            Map<String, ErrorCategoryAnnotatedUtterance<L>> labels = annotations.get(aid);
-            for (String uid : labels.keySet())
+            ret = new HashMap<>();
+            for (int a = 0; a < aids.size(); a++)
             {
-                if (weights == null)
-                {
-                    // put weights equally on each labels
-                    double weight = 1.0 / labels.get(uid).getBdLabels().size();
-                    for (L c : labels.get(uid).getBdLabels())
-                    {
-                        m.add(uid, c, weight);
-                    }
-                }
-                else
-                {
-                    int numLabels = labels.get(uid).getBdLabels().size();
-                    for (int i = 0; i < numLabels; i++)
-                    {
-                        L c = labels.get(uid).getBdLabels().get(i);
-                        double weight = weights.get(i);
-                        m.add(uid, c, weight);
-                    }
-                }
-                
-                Map<L, Double> row = m.row(uid);
-                double sum = 0.0;
-                for (L c : row.keySet())
+                ret.put(aids.get(a), built.get(a));
+            }
+            ret = Collections.unmodifiableMap(ret);
+            matrices = ret;
+        }
+        return ret;
+    }
+    
+    private AnnotationMatrix<UtteranceKey, L> buildAnnotationMatrix(String aid)
+    {
+        AnnotationMatrix<UtteranceKey, L> m = new AnnotationMatrix<>(aid, uids, category);
+        
+        Map<UtteranceKey, ErrorCategoryAnnotatedUtterance<L>> labels = annotations.get(aid);
+        for (UtteranceKey uid : labels.keySet())
+        {
+            if (weights == null)
+            {
+                // put weights equally on each labels
+                double weight = 1.0 / labels.get(uid).getBdLabels().size();
+                for (L c : labels.get(uid).getBdLabels())
                 {
-                    sum += row.get(c);
+                    m.add(uid, c, weight);
                 }
-                if (Math.abs(sum - 1.0) > 0.000001)
+            }
+            else
+            {
+                int numLabels = labels.get(uid).getBdLabels().size();
+                for (int i = 0; i < numLabels; i++)
                 {
-                    FootPrint.warn("Inconsistent Value");
+                    L c = labels.get(uid).getBdLabels().get(i);
+                    double weight = weights.get(i);
+                    m.add(uid, c, weight);
                 }
             }
-
-            ret.put(aid, m);
+            
+            Map<L, Double> row = m.row(uid);
+            double sum = 0.0;
+            for (L c : row.keySet())
+            {
+                sum += row.get(c);
+            }
+            if (Math.abs(sum - 1.0) > 0.000001)
+            {
+                FootPrint.warn("Inconsistent Value");
+            }
         }
-        return ret;
+        return m;
     }
 }
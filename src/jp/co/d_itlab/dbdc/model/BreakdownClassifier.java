@@ -13,6 +13,7 @@
 package jp.co.d_itlab.dbdc.model;
 
 import jp.co.d_itlab.dbdc.excel.BreakDownAnnotatedUtterance;
+import jp.co.d_itlab.dbdc.excel.FieldName;
 
 public class BreakdownClassifier
 {
@@ -20,11 +21,19 @@ public class BreakdownClassifier
      * Recognize a given utterance whether it is broken down or not.
      */
     public static boolean isBreakdown(BreakDownAnnotatedUtterance u)
+    {
+        return isBreakdown(u.getNumAnnotation(), u.getIntValue(FieldName.NumT), u.getIntValue(FieldName.NumX));
+    }
+    
+    /**
+     * Recognize an utterance whether it is broken down or not from the numbers of annotations.
+     */
+    public static boolean isBreakdown(int numAnnotation, int numT, int numX)
     {
         boolean found = false;
         
-        double n = u.getNumT() + u.getNumX();
-        if (u.getNumAnnotation() > 0.0 && 2 * n >= u.getNumAnnotation() && n > 1)
+        double n = numT + numX;
+        if (numAnnotation > 0.0 && 2 * n >= numAnnotation && n > 1)
         {
             found = true;
         }
@@ -0,0 +1,428 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jp.co.d_itlab.dbdc.excel.AnnotationRowDecoder;
+import jp.co.d_itlab.dbdc.excel.AnnotationWorkbookWriter;
+
+/**
+ * Generates a synthetic corpus of annotated files in the layout of "[annotator]/[trial]/[trial]_[system].xlsm".
+ *
+ * Each file holds dialogues whose turns of the system are all broken down, so that each of them is a subject.
+ * Subjects are divided evenly among the files, and the last dialogue of a file is shortened to give the exact number of subjects.
+ * A subject has a latent set of labels drawn from the taxonomy, which has two labels at the multi-label rate.
+ * Each annotator copies the latent labels at the copy rate and gives labels drawn independently otherwise,
+ * and leaves a subject unannotated at the missing rate, where the row of the subject is omitted.
+ *
+ * Since independent labels agree only by chance, the expected kappa coefficient is about the square of the copy rate
+ * without missing annotations, and lower with them, because a missing annotation counts as a disagreement with the others.
+ * The copy rate can instead be derived from a target kappa coefficient by inverting this relation (see {@link #getCopyRate()}).
+ * Files of each pair of a trial and a system are generated in parallel, by random numbers seeded by the seed and the pair,
+ * so that the corpus does not depend on the parallelism.
+ */
+public class CorpusGenerator
+{
+    private final static int NUM_ANNOTATIONS = 30;
+    private final static long START_TIME = 1470622453000L;
+
+    private List<String> labels;
+    private List<String> annotators = new ArrayList<>();
+    private int numSubjects = 1000;
+    private int numTrials = 1;
+    private int numSystems = 3;
+    private int numTurns = 21;
+    private double multiLabelRate = 0.1;
+    private double copyRate = 0.7;
+    private double targetKappa = Double.NaN;
+    private double missingRate = 0.0;
+    private long seed = 0;
+
+    // Number of threads
+    private int parallelism = 1;
+
+    /**
+     * @param labels - the taxonomy of labels, e.g. an error category
+     */
+    public CorpusGenerator(List<String> labels)
+    {
+        if (labels.isEmpty())
+        {
+            throw new RuntimeException("No labels are given.");
+        }
+        this.labels = new ArrayList<>(labels);
+        setNumAnnotators(3);
+    }
+
+    /**
+     * Sets the annotators named "W1", "W2" and so on.
+     */
+    public void setNumAnnotators(int numAnnotators)
+    {
+        List<String> annotators = new ArrayList<>();
+        for (int a = 1; a <= numAnnotators; a++)
+        {
+            annotators.add("W" + a);
+        }
+        setAnnotators(annotators);
+    }
+
+    public void setAnnotators(List<String> annotators)
+    {
+        if (annotators.isEmpty())
+        {
+            throw new RuntimeException("No annotators are given.");
+        }
+        this.annotators = new ArrayList<>(annotators);
+    }
+
+    public List<String> getAnnotators()
+    {
+        return annotators;
+    }
+
+    public void setNumSubjects(int numSubjects)
+    {
+        if (numSubjects < 1)
+        {
+            throw new RuntimeException("Number of subjects must be positive: " + numSubjects);
+        }
+        this.numSubjects = numSubjects;
+    }
+
+    public int getNumSubjects()
+    {
+        return numSubjects;
+    }
+
+    public void setNumTrials(int numTrials)
+    {
+        this.numTrials = Math.max(1, numTrials);
+    }
+
+    public void setNumSystems(int numSystems)
+    {
+        this.numSystems = Math.max(1, numSystems);
+    }
+
+    /**
+     * Sets the number of turns in a dialogue, which begins with a turn of the system.
+     */
+    public void setNumTurns(int numTurns)
+    {
+        this.numTurns = Math.max(1, numTurns);
+    }
+
+    public void setMultiLabelRate(double multiLabelRate)
+    {
+        this.multiLabelRate = multiLabelRate;
+    }
+
+    /**
+     * Sets the rate at which each annotator copies the latent labels of a subject.
+     */
+    public void setCopyRate(double copyRate)
+    {
+        this.copyRate = copyRate;
+        targetKappa = Double.NaN;
+    }
+
+    /**
+     * Sets the target of the weighted Fleiss' kappa coefficient, from which the copy rate is derived on generation.
+     */
+    public void setTargetKappa(double targetKappa)
+    {
+        this.targetKappa = targetKappa;
+    }
+
+    /**
+     * Returns the copy rate, which is derived from the target kappa coefficient if it is given.
+     *
+     * A subject labeled by k of A annotators has (k - 1) / (A - 1) times the agreement of the annotators present,
+     * and two annotators agree if both copy the latent labels, and by chance (Pe = 1 / Q) otherwise.
+     * With c = E[(k - 1) / (A - 1) | k > 0] under the missing rate, kappa = c * r^2 - (1 - c) * Pe / (1 - Pe),
+     * which is solved for the copy rate r.
+     */
+    public double getCopyRate()
+    {
+        if (Double.isNaN(targetKappa))
+        {
+            return copyRate;
+        }
+        int A = annotators.size();
+        if (A < 2)
+        {
+            throw new RuntimeException("Target kappa requires two or more annotators.");
+        }
+        if (missingRate >= 1.0)
+        {
+            throw new RuntimeException("Target kappa requires a missing rate less than 1: " + missingRate);
+        }
+        double present = A * (1.0 - missingRate) / (1.0 - Math.pow(missingRate, A));
+        double c = (present - 1.0) / (A - 1);
+        double pe = 1.0 / labels.size();
+        double offset = (1.0 - c) * pe / (1.0 - pe);
+        double square = (targetKappa + offset) / c;
+        if (square < 0.0 || square > 1.0)
+        {
+            throw new RuntimeException(String.format("Target kappa %.3f is out of the range [%.3f, %.3f] at the missing rate %.3f.",
+                    targetKappa, -offset, c - offset, missingRate));
+        }
+        return Math.sqrt(square);
+    }
+
+    public void setMissingRate(double missingRate)
+    {
+        this.missingRate = missingRate;
+    }
+
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the number of threads used in generation.
+     *
+     * @param parallelism - the number of threads (1 for sequential generation)
+     */
+    public void setParallelism(int parallelism)
+    {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Returns the number of subjects in a dialogue, i.e. the number of turns of the system.
+     */
+    private int getSubjectsPerDialogue()
+    {
+        return (numTurns + 1) / 2;
+    }
+
+    /**
+     * Returns the number of subjects in the files of the p-th pair of a trial and a system.
+     */
+    private int getNumSubjects(int p)
+    {
+        int numParts = numTrials * numSystems;
+        return numSubjects / numParts + (p < numSubjects % numParts ? 1 : 0);
+    }
+
+    /**
+     * Returns the largest number of dialogues in a file.
+     */
+    private int getMaxNumDialogues()
+    {
+        return (getNumSubjects(0) + getSubjectsPerDialogue() - 1) / getSubjectsPerDialogue();
+    }
+
+    /**
+     * Generates files under a directory, and returns the generated files.
+     */
+    public List<File> generate(File dir) throws IOException
+    {
+        double copyRate = getCopyRate();
+        List<Part> parts = new ArrayList<>();
+        for (int t = 0; t < numTrials; t++)
+        {
+            for (int s = 0; s < numSystems; s++)
+            {
+                if (getNumSubjects(t * numSystems + s) > 0)
+                {
+                    parts.add(new Part(dir, t, s, copyRate));
+                }
+            }
+        }
+
+        List<File> files = new ArrayList<>();
+        if (parallelism == 1 || parts.size() == 1)
+        {
+            for (Part part : parts)
+            {
+                files.addAll(part.generate());
+            }
+            return files;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try
+        {
+            List<Future<List<File>>> futures = new ArrayList<>();
+            for (Part part : parts)
+            {
+                futures.add(pool.submit(part::generate));
+            }
+            for (Future<List<File>> future : futures)
+            {
+                files.addAll(future.get());
+            }
+            return files;
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException)e.getCause();
+            }
+            throw new RuntimeException("Failed to generate a corpus: " + dir.getAbsolutePath(), e);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns a seed mixed with given numbers, in the manner of SplitMix64.
+     */
+    private long seedOf(long... numbers)
+    {
+        long z = seed;
+        for (long n : numbers)
+        {
+            z += 0x9E3779B97F4A7C15L * (n + 1);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z = z ^ (z >>> 31);
+        }
+        return z;
+    }
+
+    /**
+     * Draws a set of labels, which has two distinct labels at the multi-label rate.
+     */
+    private String drawLabels(Random random)
+    {
+        String first = labels.get(random.nextInt(labels.size()));
+        if (labels.size() < 2 || random.nextDouble() >= multiLabelRate)
+        {
+            return first;
+        }
+        String second;
+        do
+        {
+            second = labels.get(random.nextInt(labels.size()));
+        }
+        while (second.equals(first));
+        return first + " | " + second;
+    }
+
+    /**
+     * Files of a trial and a system, one for each annotator.
+     */
+    private class Part
+    {
+        private File dir;
+        private int trial;
+        private int system;
+        private double copyRate;
+
+        private Part(File dir, int trial, int system, double copyRate)
+        {
+            this.dir = dir;
+            this.trial = trial;
+            this.system = system;
+            this.copyRate = copyRate;
+        }
+
+        private List<File> generate() throws IOException
+        {
+            String trialId = String.format("T%02d", trial + 1);
+            String fileName = String.format("%s_S%02d.xlsm", trialId, system + 1);
+
+            // turns and latent labels shared among annotators
+            Random random = new Random(seedOf(trial, system));
+            int part = trial * numSystems + system;
+            int remaining = getNumSubjects(part);
+            List<Object[]> turns = new ArrayList<>();
+            List<String> latent = new ArrayList<>();
+            for (int d = 0; remaining > 0; d++)
+            {
+                long dialogueId = START_TIME / 1000 + (long)part * getMaxNumDialogues() + d;
+                // the last dialogue ends at the turn of the system which gives the last subject
+                int numDialogueTurns = Math.min(numTurns, 2 * remaining - 1);
+                remaining -= (numDialogueTurns + 1) / 2;
+                for (int t = 0; t < numDialogueTurns; t++)
+                {
+                    boolean isSystem = t % 2 == 0;
+                    Object[] values = new Object[AnnotationRowDecoder.NUM_COLUMNS];
+                    values[0] = (double)dialogueId;
+                    values[2] = "sp" + dialogueId;
+                    values[3] = isSystem ? "S" : "U";
+                    values[4] = new Date(START_TIME + (dialogueId - START_TIME / 1000) * 600_000L + t * 10_000L);
+                    values[5] = (double)t;
+                    values[6] = (isSystem ? "system " : "user ") + dialogueId + "-" + t;
+                    if (isSystem)
+                    {
+                        // broken down by the majority of annotations
+                        int numX = NUM_ANNOTATIONS / 2 + random.nextInt(NUM_ANNOTATIONS / 2 + 1);
+                        int numT = random.nextInt(NUM_ANNOTATIONS - numX + 1);
+                        values[7] = (double)NUM_ANNOTATIONS;
+                        values[8] = (double)(NUM_ANNOTATIONS - numX - numT);
+                        values[9] = (double)numT;
+                        values[10] = (double)numX;
+                        latent.add(drawLabels(random));
+                    }
+                    else
+                    {
+                        values[7] = 0.0;
+                        values[8] = 0.0;
+                        values[9] = 0.0;
+                        values[10] = 0.0;
+                        latent.add(null);
+                    }
+                    turns.add(values);
+                }
+            }
+
+            AnnotationWorkbookWriter writer = new AnnotationWorkbookWriter();
+            List<File> files = new ArrayList<>();
+            for (int a = 0; a < annotators.size(); a++)
+            {
+                Random annotatorRandom = new Random(seedOf(trial, system, a));
+                List<Object[]> rows = new ArrayList<>();
+                for (int i = 0; i < turns.size(); i++)
+                {
+                    Object[] values = turns.get(i);
+                    if (latent.get(i) != null)
+                    {
+                        if (annotatorRandom.nextDouble() < missingRate)
+                        {
+                            continue;
+                        }
+                        values = values.clone();
+                        values[11] = annotatorRandom.nextDouble() < copyRate ? latent.get(i) : drawLabels(annotatorRandom);
+                    }
+                    rows.add(values);
+                }
+
+                File trialDir = new File(new File(dir, annotators.get(a)), trialId);
+                trialDir.mkdirs();
+                File f = new File(trialDir, fileName);
+                writer.write(f, rows);
+                files.add(f);
+            }
+            return files;
+        }
+    }
+}
@@ -13,10 +13,13 @@
 package jp.co.d_itlab.dbdc.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import jp.co.d_itlab.dbdc.excel.FieldName;
 import jp.co.d_itlab.dbdc.excel.Utterance;
+import jp.co.d_itlab.dbdc.excel.UtteranceKey;
 
 public class Dialogue
 {
@@ -24,6 +27,7 @@ public class Dialogue
     private String group_id;
     private String speaker_id;
     private List<Utterance>utterances;
+    private Map<UtteranceKey, Utterance> utteranceIndex;
     
     private String systemId;
     
@@ -31,6 +35,7 @@ public class Dialogue
     {
         this.id = dialogueId;
         utterances = new ArrayList<>();
+        utteranceIndex = new HashMap<>();
     }
     
     public void add(Utterance u)
@@ -44,6 +49,7 @@ public class Dialogue
             speaker_id = u.getValue(FieldName.SpeakerId);
         }
         utterances.add(u);
+        utteranceIndex.putIfAbsent(u.getUtteranceKey(), u);
     }
     
     public String getId()
@@ -92,6 +98,11 @@ public class Dialogue
         return found;
     }
     
+    public Utterance getUtterance(UtteranceKey key)
+    {
+        return utteranceIndex.get(key);
+    }
+    
     public void setSystemId(String sid)
     {
         systemId = sid;
@@ -15,6 +15,8 @@ package jp.co.d_itlab.dbdc.model;
 import java.util.HashMap;
 import java.util.Map;
 
+import jp.co.d_itlab.dbdc.excel.UtteranceKey;
+
 public class DialogueDataset
 {
     private Map<String, Dialogue> dialogues;
@@ -71,4 +73,20 @@ public class DialogueDataset
         
         return found;
     }
+    
+    /**
+     * Returns the dialogue including an utterance, which is found by the dialogue ID of the key.
+     */
+    public Dialogue getDialogueWithUtteranceKey(UtteranceKey key)
+    {
+        Dialogue d = dialogues.get(key.getDialogueKey());
+        if (d != null && d.getUtterance(key) != null)
+        {
+            return d;
+        }
+        else
+        {
+            return null;
+        }
+    }
 }
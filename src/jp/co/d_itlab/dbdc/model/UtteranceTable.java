@@ -0,0 +1,409 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.d_itlab.dbdc.excel.ErrorCategoryAnnotatedUtterance;
+import jp.co.d_itlab.dbdc.excel.FieldName;
+import jp.co.d_itlab.dbdc.excel.UtteranceKey;
+import jp.co.d_itlab.iaa.AnnotationMatrix;
+import jp.co.d_itlab.iaa.SubjectIndex;
+
+/**
+ * Columnar store of annotated utterances.
+ *
+ * Each field is held in a column of primitive values indexed by the row number.
+ * Strings of file names, dialogue IDs, group IDs, speakers, annotators and labels are dictionary-encoded into ordinals,
+ * and labels of each row are held in the compressed sparse row layout.
+ * Rows can be scanned without creating {@link jp.co.d_itlab.dbdc.excel.Utterance} objects.
+ */
+public class UtteranceTable
+{
+    private final static int INITIAL_CAPACITY = 1024;
+
+    // dictionaries
+    private SubjectIndex<String> files = new SubjectIndex<>();
+    private SubjectIndex<String> dialogues = new SubjectIndex<>();
+    private SubjectIndex<String> groups = new SubjectIndex<>();
+    private SubjectIndex<String> speakers = new SubjectIndex<>();
+    private SubjectIndex<String> annotators = new SubjectIndex<>();
+    private SubjectIndex<String> labels = new SubjectIndex<>();
+
+    // columns
+    private int size = 0;
+    private int[] fileColumn;
+    private int[] dialogueColumn;
+    private int[] groupColumn;
+    private int[] speakerColumn;
+    private int[] annotatorColumn;
+    private int[] turnIndexColumn;
+    private int[] numAnnotationColumn;
+    private int[] numOColumn;
+    private int[] numTColumn;
+    private int[] numXColumn;
+    private long[] timeColumn;
+
+    // labels of the i-th row are labelColumn[labelOffsets[i]] ... labelColumn[labelOffsets[i + 1] - 1]
+    private int[] labelOffsets;
+    private int[] labelColumn;
+
+    public UtteranceTable()
+    {
+        this(INITIAL_CAPACITY);
+    }
+
+    public UtteranceTable(int capacity)
+    {
+        capacity = Math.max(capacity, 16);
+        fileColumn = new int[capacity];
+        dialogueColumn = new int[capacity];
+        groupColumn = new int[capacity];
+        speakerColumn = new int[capacity];
+        annotatorColumn = new int[capacity];
+        turnIndexColumn = new int[capacity];
+        numAnnotationColumn = new int[capacity];
+        numOColumn = new int[capacity];
+        numTColumn = new int[capacity];
+        numXColumn = new int[capacity];
+        timeColumn = new long[capacity];
+        labelOffsets = new int[capacity + 1];
+        labelColumn = new int[capacity];
+    }
+
+    /**
+     * Appends a row and returns its row number.
+     */
+    public int add(ErrorCategoryAnnotatedUtterance<String> u)
+    {
+        List<String> bdLabels = u.getBdLabels();
+        int numLabels = bdLabels == null ? 0 : bdLabels.size();
+        int[] ordinals = new int[numLabels];
+        for (int i = 0; i < numLabels; i++)
+        {
+            ordinals[i] = labels.intern(bdLabels.get(i));
+        }
+
+        return add(u.getValue(FieldName.FileName), u.getValue(FieldName.DialogueId), u.getValue(FieldName.GroupId),
+                u.getIntValue(FieldName.TurnIndex), u.getValue(FieldName.Speaker), u.getValue(FieldName.Annotator),
+                u.getIntValue(FieldName.NumAnnotation), u.getIntValue(FieldName.NumO), u.getIntValue(FieldName.NumT), u.getIntValue(FieldName.NumX),
+                u.getTimeMillis(), ordinals);
+    }
+
+    /**
+     * Appends a row and returns its row number.
+     *
+     * @param labelOrdinals - ordinals of labels given by {@link #internLabel(String)}
+     */
+    public int add(String fileName, String dialogueId, String groupId, int turnIndex, String speaker, String annotator,
+            int numAnnotation, int numO, int numT, int numX, long time, int[] labelOrdinals)
+    {
+        ensureCapacity(size + 1);
+        int row = size++;
+        fileColumn[row] = encode(files, fileName);
+        dialogueColumn[row] = encode(dialogues, dialogueId);
+        groupColumn[row] = encode(groups, groupId);
+        speakerColumn[row] = encode(speakers, speaker);
+        annotatorColumn[row] = encode(annotators, annotator);
+        turnIndexColumn[row] = turnIndex;
+        numAnnotationColumn[row] = numAnnotation;
+        numOColumn[row] = numO;
+        numTColumn[row] = numT;
+        numXColumn[row] = numX;
+        timeColumn[row] = time;
+
+        int offset = labelOffsets[row];
+        if (offset + labelOrdinals.length > labelColumn.length)
+        {
+            labelColumn = Arrays.copyOf(labelColumn, Math.max(labelColumn.length * 2, offset + labelOrdinals.length));
+        }
+        System.arraycopy(labelOrdinals, 0, labelColumn, offset, labelOrdinals.length);
+        labelOffsets[row + 1] = offset + labelOrdinals.length;
+        return row;
+    }
+
+    /**
+     * Null is encoded to -1.
+     */
+    private static int encode(SubjectIndex<String> dictionary, String value)
+    {
+        return value == null ? -1 : dictionary.intern(value);
+    }
+
+    private static String decode(SubjectIndex<String> dictionary, int ordinal)
+    {
+        return ordinal < 0 ? null : dictionary.get(ordinal);
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= fileColumn.length)
+        {
+            return;
+        }
+        int n = Math.max(capacity, fileColumn.length * 2);
+        fileColumn = Arrays.copyOf(fileColumn, n);
+        dialogueColumn = Arrays.copyOf(dialogueColumn, n);
+        groupColumn = Arrays.copyOf(groupColumn, n);
+        speakerColumn = Arrays.copyOf(speakerColumn, n);
+        annotatorColumn = Arrays.copyOf(annotatorColumn, n);
+        turnIndexColumn = Arrays.copyOf(turnIndexColumn, n);
+        numAnnotationColumn = Arrays.copyOf(numAnnotationColumn, n);
+        numOColumn = Arrays.copyOf(numOColumn, n);
+        numTColumn = Arrays.copyOf(numTColumn, n);
+        numXColumn = Arrays.copyOf(numXColumn, n);
+        timeColumn = Arrays.copyOf(timeColumn, n);
+        labelOffsets = Arrays.copyOf(labelOffsets, n + 1);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int internLabel(String label)
+    {
+        return labels.intern(label);
+    }
+
+    public SubjectIndex<String> getFileDictionary()
+    {
+        return files;
+    }
+
+    public SubjectIndex<String> getDialogueDictionary()
+    {
+        return dialogues;
+    }
+
+    public SubjectIndex<String> getGroupDictionary()
+    {
+        return groups;
+    }
+
+    public SubjectIndex<String> getSpeakerDictionary()
+    {
+        return speakers;
+    }
+
+    public SubjectIndex<String> getAnnotatorDictionary()
+    {
+        return annotators;
+    }
+
+    public SubjectIndex<String> getLabelDictionary()
+    {
+        return labels;
+    }
+
+    public int getFile(int row)
+    {
+        return fileColumn[row];
+    }
+
+    public int getDialogue(int row)
+    {
+        return dialogueColumn[row];
+    }
+
+    public int getGroup(int row)
+    {
+        return groupColumn[row];
+    }
+
+    public int getSpeaker(int row)
+    {
+        return speakerColumn[row];
+    }
+
+    public int getAnnotator(int row)
+    {
+        return annotatorColumn[row];
+    }
+
+    public int getTurnIndex(int row)
+    {
+        return turnIndexColumn[row];
+    }
+
+    public int getNumAnnotation(int row)
+    {
+        return numAnnotationColumn[row];
+    }
+
+    public int getNumO(int row)
+    {
+        return numOColumn[row];
+    }
+
+    public int getNumT(int row)
+    {
+        return numTColumn[row];
+    }
+
+    public int getNumX(int row)
+    {
+        return numXColumn[row];
+    }
+
+    public long getTime(int row)
+    {
+        return timeColumn[row];
+    }
+
+    public int getNumLabels(int row)
+    {
+        return labelOffsets[row + 1] - labelOffsets[row];
+    }
+
+    /**
+     * Returns the ordinal of the i-th label of a row.
+     */
+    public int getLabel(int row, int i)
+    {
+        return labelColumn[labelOffsets[row] + i];
+    }
+
+    public String getFileName(int row)
+    {
+        return decode(files, fileColumn[row]);
+    }
+
+    public String getDialogueId(int row)
+    {
+        return decode(dialogues, dialogueColumn[row]);
+    }
+
+    public String getGroupId(int row)
+    {
+        return decode(groups, groupColumn[row]);
+    }
+
+    public String getSpeakerName(int row)
+    {
+        return decode(speakers, speakerColumn[row]);
+    }
+
+    public String getAnnotatorId(int row)
+    {
+        return decode(annotators, annotatorColumn[row]);
+    }
+
+    public String getLabelName(int row, int i)
+    {
+        return labels.get(getLabel(row, i));
+    }
+
+    public boolean isBreakdown(int row)
+    {
+        return BreakdownClassifier.isBreakdown(numAnnotationColumn[row], numTColumn[row], numXColumn[row]);
+    }
+
+    /**
+     * Returns the key of a row, which identifies an utterance across annotators.
+     */
+    public UtteranceKey getUtteranceKey(int row)
+    {
+        return new UtteranceKey(getFileName(row), getDialogueId(row), getGroupId(row), turnIndexColumn[row]);
+    }
+
+    /**
+     * Builds annotation matrices of broken down utterances of all annotators in the same manner as {@link AnnotationDataset},
+     * where weights are put on labels of each utterance equally.
+     * The last row of an annotator for an utterance overrides the former ones.
+     */
+    public Map<String, AnnotationMatrix<UtteranceKey, String>> getAnnotationMatrices(List<String> category)
+    {
+        return getAnnotationMatrices(category, annotators.asList());
+    }
+
+    /**
+     * Builds annotation matrices of given annotators in their order, where annotators without annotations are omitted.
+     * The matrices share the registry of all broken down utterances regardless of the given annotators.
+     */
+    public Map<String, AnnotationMatrix<UtteranceKey, String>> getAnnotationMatrices(List<String> category, List<String> aids)
+    {
+        // utterances and the last row of each annotator
+        SubjectIndex<UtteranceKey> uids = new SubjectIndex<>(new UtteranceKey.Encoder());
+        int[] subjects = new int[size];
+        int A = annotators.size();
+        for (int row = 0; row < size; row++)
+        {
+            subjects[row] = -1;
+            if (annotatorColumn[row] >= 0 && isBreakdown(row))
+            {
+                subjects[row] = uids.intern(getUtteranceKey(row));
+            }
+        }
+        int[] lastRows = new int[uids.size() * A];
+        Arrays.fill(lastRows, -1);
+        for (int row = 0; row < size; row++)
+        {
+            if (subjects[row] >= 0)
+            {
+                lastRows[subjects[row] * A + annotatorColumn[row]] = row;
+            }
+        }
+
+        // ordinals of labels in the category
+        int[] categoryIndices = new int[labels.size()];
+        for (int l = 0; l < categoryIndices.length; l++)
+        {
+            categoryIndices[l] = category.indexOf(labels.get(l));
+        }
+
+        Map<String, AnnotationMatrix<UtteranceKey, String>> ret = new LinkedHashMap<>();
+        int N = uids.size();
+        for (String aid : aids)
+        {
+            int a = annotators.indexOf(aid);
+            if (a < 0)
+            {
+                continue;
+            }
+            boolean found = false;
+            AnnotationMatrix<UtteranceKey, String> m = new AnnotationMatrix<>(aid, uids, category);
+            for (int i = 0; i < N; i++)
+            {
+                int row = lastRows[i * A + a];
+                if (row < 0)
+                {
+                    continue;
+                }
+                found = true;
+                int numLabels = getNumLabels(row);
+                double weight = 1.0 / numLabels;
+                for (int t = 0; t < numLabels; t++)
+                {
+                    int j = categoryIndices[getLabel(row, t)];
+                    if (j >= 0)
+                    {
+                        m.add(i, j, weight);
+                    }
+                    else
+                    {
+                        m.add(uids.get(i), getLabelName(row, t), weight);
+                    }
+                }
+            }
+            if (found)
+            {
+                ret.put(aid, m);
+            }
+        }
+        return ret;
+    }
+}
@@ -12,45 +12,53 @@
 ///
 package jp.co.d_itlab.dbdc.tool;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 import java.text.MessageFormat;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.CreationHelper;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
-import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
-import jp.co.d_itlab.dbdc.excel.BreakDownAnnotatedUtterance;
+import jp.co.d_itlab.dbdc.excel.AnnotationCache;
+import jp.co.d_itlab.dbdc.excel.AnnotationRowDecoder;
+import jp.co.d_itlab.dbdc.excel.AnnotationSheetReader;
+import jp.co.d_itlab.dbdc.excel.DelimitedAnnotationReader;
 import jp.co.d_itlab.dbdc.excel.ErrorCategoryAnnotatedUtterance;
-import jp.co.d_itlab.dbdc.excel.Field;
-import jp.co.d_itlab.dbdc.excel.FieldName;
-import jp.co.d_itlab.dbdc.excel.Utterance;
-import jp.co.d_itlab.dbdc.logging.DateTimeFormat;
+import jp.co.d_itlab.dbdc.excel.UtteranceKey;
+import jp.co.d_itlab.dbdc.json.DialogueJsonReader;
 import jp.co.d_itlab.dbdc.logging.DoubleFormat;
 import jp.co.d_itlab.dbdc.logging.FootPrint;
+import jp.co.d_itlab.dbdc.model.AnnotationCorpus;
 import jp.co.d_itlab.dbdc.model.AnnotationDataset;
-import jp.co.d_itlab.dbdc.model.BreakdownClassifier;
+import jp.co.d_itlab.dbdc.model.CorpusGenerator;
 import jp.co.d_itlab.dbdc.model.Dialogue;
 import jp.co.d_itlab.dbdc.model.DialogueDataset;
 import jp.co.d_itlab.dbdc.model.ErrorCategory;
+import jp.co.d_itlab.iaa.AgreementStatistics;
 import jp.co.d_itlab.iaa.AnnotationMatrix;
+import jp.co.d_itlab.iaa.AnnotatorJackknife;
 import jp.co.d_itlab.iaa.ConfusionMatrix;
+import jp.co.d_itlab.iaa.KappaBootstrap;
+import jp.co.d_itlab.iaa.PairwiseKappa;
 import jp.co.d_itlab.iaa.WeightedFleissKappa;
 import jp.co.d_itlab.iaa.WeightedKappa;
 import jp.co.d_itlab.math.IndexedMatrix;
@@ -107,7 +115,81 @@ public class IAATool  extends CliTool
     @Option(names = {OPT_LANGUAGE}, required = false, description="language (ja: Japanese, en: English)", defaultValue="ja")
     private static String locale;
     
-    private NumberFormat nf = NumberFormat.getInstance();
+    public final static String OPT_THREADS = "-threads";
+    @Option(names = {OPT_THREADS}, required = false, description="number of threads used in loading and calculation", defaultValue="1")
+    private static int threads;
+    
+    public final static String OPT_COLUMNS = "-columns";
+    @Option(names = {OPT_COLUMNS}, required = false, description="columns of CSV/TSV files for dialogue ID, group ID, speaker ID, speaker, time, turn index, utterance, #annotation, #O, #T, #X, breakdown category and remark (\"-\" for absent columns)")
+    private static String columnMapping;
+    
+    public final static String OPT_CACHE = "-cache";
+    @Option(names = {OPT_CACHE}, required = false, description="caches parsed files next to the input directory and parses only new or changed files")
+    private static boolean useCache;
+    
+    public final static String OPT_SHARD = "-shard";
+    @Option(names = {OPT_SHARD}, required = false, description="writes merged data into a file per dialogue system")
+    private static boolean isSharded;
+    
+    public final static String OPT_FORMAT = "-format";
+    @Option(names = {OPT_FORMAT}, required = false, description="format of merged data (xlsx, csv: gzipped CSV, bin: binary columns)", defaultValue="xlsx")
+    private static String mergedDataFormat;
+    
+    public final static String OPT_BOOTSTRAP = "-bootstrap";
+    @Option(names = {OPT_BOOTSTRAP}, required = false, description="number of bootstrap replicates for confidence intervals (0: disabled)", defaultValue="0")
+    private static int bootstrapReplicates;
+    
+    public final static String OPT_BOOTSTRAP_CLUSTER = "-cluster";
+    @Option(names = {OPT_BOOTSTRAP_CLUSTER}, required = false, description="resamples dialogues instead of utterances in bootstrap")
+    private static boolean bootstrapCluster;
+    
+    public final static String OPT_CONFIDENCE_LEVEL = "-confidence";
+    @Option(names = {OPT_CONFIDENCE_LEVEL}, required = false, description="confidence level of intervals", defaultValue="0.95")
+    private static double confidenceLevel;
+    
+    public final static String OPT_SEED = "-seed";
+    @Option(names = {OPT_SEED}, required = false, description="seed of random numbers", defaultValue="0")
+    private static long seed;
+    
+    public final static String OPT_JACKKNIFE = "-jackknife";
+    @Option(names = {OPT_JACKKNIFE}, required = false, description="shows the agreement with each annotator left out")
+    private static boolean jackknife;
+    
+    public final static String OPT_STATE_PATH = "-state";
+    @Option(names = {OPT_STATE_PATH}, required = false, description="path to the file where the agreement statistics are written")
+    private static String statePath;
+    
+    public final static String OPT_SUBJECTS = "-subjects";
+    @Option(names = {OPT_SUBJECTS}, required = false, description="number of subjects generated by the gen command", defaultValue="1000")
+    private static int numSubjects;
+    
+    public final static String OPT_ANNOTATORS = "-annotators";
+    @Option(names = {OPT_ANNOTATORS}, required = false, description="number of annotators generated by the gen command unless annotators are given", defaultValue="3")
+    private static int numAnnotators;
+    
+    public final static String OPT_TRIALS = "-trials";
+    @Option(names = {OPT_TRIALS}, required = false, description="number of trials generated by the gen command", defaultValue="1")
+    private static int numTrials;
+    
+    public final static String OPT_SYSTEMS = "-systems";
+    @Option(names = {OPT_SYSTEMS}, required = false, description="number of dialogue systems generated by the gen command", defaultValue="3")
+    private static int numSystems;
+    
+    public final static String OPT_MULTI_LABEL_RATE = "-multi";
+    @Option(names = {OPT_MULTI_LABEL_RATE}, required = false, description="rate of subjects with two labels generated by the gen command", defaultValue="0.1")
+    private static double multiLabelRate;
+    
+    public final static String OPT_COPY_RATE = "-copy";
+    @Option(names = {OPT_COPY_RATE}, required = false, description="rate at which each annotator copies the latent labels in the gen command (the expected kappa is about its square without missing annotations)", defaultValue="0.7")
+    private static double copyRate;
+    
+    public final static String OPT_TARGET_KAPPA = "-kappa";
+    @Option(names = {OPT_TARGET_KAPPA}, required = false, description="target kappa coefficient in the gen command, from which the copy rate is derived")
+    private static Double targetKappa;
+    
+    public final static String OPT_MISSING_RATE = "-missing";
+    @Option(names = {OPT_MISSING_RATE}, required = false, description="rate at which each annotator leaves a subject unannotated in the gen command", defaultValue="0.0")
+    private static double missingRate;
     
     // Annotation data
     private List<String> targetAnnotatorList;
@@ -134,11 +216,18 @@ public class IAATool  extends CliTool
     
     private Map<String, Map<String, List<Integer>>> dialogueSessionAndTurnId = new HashMap<>();
     
+    // system ID of each loaded file name
+    private Map<String, String> systemIds = new HashMap<>();
+    
     public IAATool()
     {
         setCommand(InterAnnotatorAgreementComand.NAME, new InterAnnotatorAgreementComand());
         setCommand(AllInterAnnotatorAgreementsComand.NAME, new AllInterAnnotatorAgreementsComand());
         setCommand(MultiAnnotatorAgreementCommand.NAME, new MultiAnnotatorAgreementCommand());
+        setCommand(MergeStatisticsCommand.NAME, new MergeStatisticsCommand());
+        setCommand(ExportCorpusCommand.NAME, new ExportCorpusCommand());
+        setCommand(CorpusAgreementCommand.NAME, new CorpusAgreementCommand());
+        setCommand(GenerateCorpusCommand.NAME, new GenerateCorpusCommand());
     }
 
     @Override
@@ -197,7 +286,8 @@ public class IAATool  extends CliTool
             targetAnnotatorList = Arrays.asList(annotator1, annotator2);
         }
                 
-        // load data for each annotator
+        // list annotated files in the order of annotators, trials and files
+        List<AnnotationFile> files = new ArrayList<>();
         for (File annotator : getDirectories(path))
         {
             if (!annotator.getName().equals(annotator1) && !annotator.getName().equals(annotator2) && !targetAnnotatorList.contains(annotator.getName()))
@@ -220,11 +310,88 @@ public class IAATool  extends CliTool
                 // load annotated files
                 for (File f : getFiles(trial.getAbsolutePath()))
                 {
-                    List<ErrorCategoryAnnotatedUtterance<String>> utterances = loadFile(annotator.getName(), targetErrorCategory, f);
+                    files.add(new AnnotationFile(annotator.getName(), f));
+                }
+            }
+        }
+        
+        // files not cached or changed since cached
+        List<List<ErrorCategoryAnnotatedUtterance<String>>> loaded = new ArrayList<>(Collections.nCopies(files.size(), null));
+        List<Integer> misses = new ArrayList<>();
+        AnnotationCache cache = useCache ? new AnnotationCache(AnnotationCache.getDefaultDirectory(path)) : null;
+        for (int i = 0; i < files.size(); i++)
+        {
+            List<ErrorCategoryAnnotatedUtterance<String>> cached = null;
+            if (cache != null)
+            {
+                AnnotationFile f = files.get(i);
+                try
+                {
+                    cached = cache.get(f.file, new AnnotationRowDecoder(f.annotator, targetErrorCategory, f.file.getName()), layoutOf(f.file));
+                }
+                catch (IOException e)
+                {
+                    FootPrint.warn("Failed to read a cache: {0}, {1}", f.file.getName(), e);
+                }
+            }
+            if (cached != null)
+            {
+                loaded.set(i, cached);
+            }
+            else
+            {
+                misses.add(i);
+            }
+        }
+        if (cache != null)
+        {
+            FootPrint.info("Cached Files: [{0}],  Files to Parse: [{1}]", files.size() - misses.size(), misses.size());
+        }
+        
+        List<AnnotationFile> parsing = new ArrayList<>();
+        for (int i : misses)
+        {
+            parsing.add(files.get(i));
+        }
+        List<List<ErrorCategoryAnnotatedUtterance<String>>> parsed;
+        if (threads > 1 && parsing.size() > 1)
+        {
+            parsed = loadFilesInParallel(parsing);
+        }
+        else
+        {
+            parsed = new ArrayList<>();
+            for (AnnotationFile f : parsing)
+            {
+                parsed.add(loadFile(f.annotator, targetErrorCategory, f.file));
+            }
+        }
+        for (int k = 0; k < parsing.size(); k++)
+        {
+            loaded.set(misses.get(k), parsed.get(k));
+            if (cache != null && parsed.get(k) != null)
+            {
+                AnnotationFile f = parsing.get(k);
+                try
+                {
+                    cache.put(f.file, new AnnotationRowDecoder(f.annotator, targetErrorCategory, f.file.getName()), layoutOf(f.file), parsed.get(k));
+                }
+                catch (IOException e)
+                {
+                    FootPrint.warn("Failed to write a cache: {0}, {1}", f.file.getName(), e);
                 }
             }
         }
         
+        // merge in the order of files regardless of the order of completion
+        for (int i = 0; i < files.size(); i++)
+        {
+            if (loaded.get(i) != null)
+            {
+                addUtterances(loaded.get(i), files.get(i).file);
+            }
+        }
+        
         Map<String, Integer> numAnnotations = annotationDataset.getNumAnnotations();
         for (String aid : numAnnotations.keySet())
         {
@@ -232,13 +399,113 @@ public class IAATool  extends CliTool
         }
     }
     
-    private <T> List<ErrorCategoryAnnotatedUtterance<T>> loadFile(String annotator, String categoryType, File f)
+    /**
+     * An annotated file of an annotator.
+     */
+    private static class AnnotationFile
+    {
+        private String annotator;
+        private File file;
+        
+        private AnnotationFile(String annotator, File file)
+        {
+            this.annotator = annotator;
+            this.file = file;
+        }
+    }
+    
+    /**
+     * Parses files on a bounded pool of threads. 
+     * Larger files are scheduled first, and a reader thread reads files ahead into the page cache so that I/O overlaps parsing,
+     * whereas workers open the files themselves and never hold their whole contents on the heap.
+     * Each file is parsed in isolation, and the results are returned in the order of given files.
+     */
+    private List<List<ErrorCategoryAnnotatedUtterance<String>>> loadFilesInParallel(List<AnnotationFile> files)
     {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++)
+        {
+            order.add(i);
+        }
+        order.sort((i1, i2) -> Long.compare(files.get(i2).file.length(), files.get(i1).file.length()));
+        
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        // the number of files read but not parsed yet
+        Semaphore readAhead = new Semaphore(threads * 2);
+        // used only by the reader thread
+        byte[] buffer = new byte[1 << 16];
         try
         {
-            FootPrint.show("Loading a File: " + f.getAbsolutePath());
-            Workbook wb = WorkbookFactory.create(f);
-            return loadExcelData(wb, annotator, categoryType, f.getName());
+            List<Future<List<ErrorCategoryAnnotatedUtterance<String>>>> futures = new ArrayList<>(Collections.nCopies(files.size(), null));
+            for (int i : order)
+            {
+                AnnotationFile f = files.get(i);
+                if (isTextFile(f.file))
+                {
+                    // text files are read as streams without reading ahead
+                    futures.set(i, workers.submit(() -> loadTextFile(f.annotator, targetErrorCategory, f.file, 1)));
+                    continue;
+                }
+                Future<?> prefetched = reader.submit(() -> 
+                {
+                    readAhead.acquire();
+                    prefetch(f.file, buffer);
+                    return null;
+                });
+                futures.set(i, workers.submit(() -> 
+                {
+                    try
+                    {
+                        prefetched.get();
+                        return loadFile(f.annotator, targetErrorCategory, f.file);
+                    }
+                    finally
+                    {
+                        readAhead.release();
+                    }
+                }));
+            }
+            
+            List<List<ErrorCategoryAnnotatedUtterance<String>>> loaded = new ArrayList<>(files.size());
+            for (Future<List<ErrorCategoryAnnotatedUtterance<String>>> future : futures)
+            {
+                loaded.add(future.get());
+            }
+            return loaded;
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new RuntimeException("Failed to load annotated files.", e);
+        }
+        finally
+        {
+            reader.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+    
+    private List<ErrorCategoryAnnotatedUtterance<String>> loadFile(String annotator, String categoryType, File f)
+    {
+        if (isTextFile(f))
+        {
+            return loadTextFile(annotator, categoryType, f, threads);
+        }
+        
+        FootPrint.show("Loading a File: " + f.getAbsolutePath());
+        AnnotationRowDecoder decoder = new AnnotationRowDecoder(annotator, categoryType, f.getName());
+        try
+        {
+            return new AnnotationSheetReader(decoder).read(f);
+        }
+        catch (Exception e)
+        {
+            FootPrint.warn("Failed to stream a file, then it is read as a workbook: {0}, {1}", f.getName(), e);
+        }
+        
+        try (Workbook wb = WorkbookFactory.create(f, null, true))
+        {
+            return decoder.decode(wb);
         }
         catch (Exception e)
         {
@@ -247,50 +514,78 @@ public class IAATool  extends CliTool
         }
     }
     
-    private <T> List<ErrorCategoryAnnotatedUtterance<T>> loadExcelData(Workbook wb, String annotator, String categoryType, String fileName)
+    /**
+     * Reads a file through a buffer and discards the contents, which only leaves the file in the page cache.
+     * A failure is ignored, as it is reported when the file is parsed.
+     */
+    private static void prefetch(File f, byte[] buffer)
     {
-        List<ErrorCategoryAnnotatedUtterance<T>> utterances = new ArrayList<>();
-        
-        Sheet sheet = wb.getSheetAt(0);
-        Iterator<Row> rows = sheet.rowIterator();
-        int n = 0;
-        Dialogue currentDialogue = new Dialogue(null);
-        while(rows.hasNext()) 
+        try (FileInputStream in = new FileInputStream(f))
         {
-            Row row = rows.next();
-            
-            if (n++ == 0)
+            while (in.read(buffer) >= 0)
             {
-                // skip header
-                continue;
+                // discarded
             }
-            
-            if (row.getCell(0) == null)
+        }
+        catch (IOException e)
+        {
+            FootPrint.warn("Failed to read a file ahead: {0}, {1}", f.getAbsolutePath(), e);
+        }
+    }
+    
+    /**
+     * Returns the layout of columns a file is parsed with, which is the column mapping for CSV/TSV files and empty for the others.
+     */
+    private static String layoutOf(File f)
+    {
+        if (!DelimitedAnnotationReader.isDelimitedText(f))
+        {
+            return "";
+        }
+        return Arrays.toString(DelimitedAnnotationReader.parseColumns(columnMapping));
+    }
+    
+    /**
+     * Returns true for CSV, TSV and JSON files, which are read without POI.
+     */
+    private static boolean isTextFile(File f)
+    {
+        return DelimitedAnnotationReader.isDelimitedText(f) || DialogueJsonReader.isJson(f);
+    }
+    
+    private List<ErrorCategoryAnnotatedUtterance<String>> loadTextFile(String annotator, String categoryType, File f, int parallelism)
+    {
+        FootPrint.show("Loading a File: " + f.getAbsolutePath());
+        AnnotationRowDecoder decoder = new AnnotationRowDecoder(annotator, categoryType, f.getName());
+        try
+        {
+            if (DialogueJsonReader.isJson(f))
             {
-                // end of data
-                break;
+                return new DialogueJsonReader(decoder).read(f);
             }
-            
-            ErrorCategoryAnnotatedUtterance<String> u = new ErrorCategoryAnnotatedUtterance<>();
-            u.categoryType = categoryType;
-            u.setValue(FieldName.Annotator, annotator);
-            u.setValue(FieldName.FileName, fileName);
-            u.setValue(FieldName.DialogueId, getStirngValue(row.getCell(0)).replaceAll(",", ""));
-            u.setValue(FieldName.GroupId, getStirngValue(row.getCell(1)).replaceAll(",", ""));
-            u.setValue(FieldName.SpeakerId, getStirngValue(row.getCell(2)));
-            u.setValue(FieldName.Speaker, getStirngValue(row.getCell(3)));
-            u.setValue(FieldName.Time, getDateValue(row.getCell(4)));
-            u.setValue(FieldName.TurnIndex, getStirngValue(row.getCell(5)).replaceAll(",", ""));
-            u.setValue(FieldName.Utterance, getStirngValue(row.getCell(6)));
-            u.setValue(FieldName.NumAnnotation, getStirngValue(row.getCell(7)));
-            u.setValue(FieldName.NumO, getStirngValue(row.getCell(8)));
-            u.setValue(FieldName.NumT, getStirngValue(row.getCell(9)));
-            u.setValue(FieldName.NumX, getStirngValue(row.getCell(10)));
-            u.setValue(FieldName.BreakdownCategory, getStirngValue(row.getCell(11)));
-            u.setValue(FieldName.Remark, getStirngValue(row.getCell(12)));
-            
+            DelimitedAnnotationReader reader = new DelimitedAnnotationReader(decoder, DelimitedAnnotationReader.delimiterOf(f), DelimitedAnnotationReader.parseColumns(columnMapping));
+            reader.setParallelism(parallelism);
+            return reader.read(f);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * Adds utterances read from a file to the datasets.
+     */
+    private void addUtterances(List<ErrorCategoryAnnotatedUtterance<String>> utterances, File f)
+    {
+        String sid = systemIdOf(f);
+        systemIds.put(f.getName(), sid);
+        
+        Dialogue currentDialogue = new Dialogue(null);
+        for (ErrorCategoryAnnotatedUtterance<String> u : utterances)
+        {
             boolean isAdded = false;
-            String sid = systemId(fileName);  
             String dialogueId = bareId(u.getDialogueId());
             
             if (filterDialogueSystemId != null)
@@ -330,209 +625,42 @@ public class IAATool  extends CliTool
             currentDialogue.add(u);
         }
         
-        FootPrint.show(n + " rows read.");
-        
-        return utterances;
+        FootPrint.show(utterances.size() + " rows read.");
     }
-    
-    private String getStirngValue(Cell cell)
+
+    /**
+     * Starts exporting the loaded data merged over annotators on background threads,
+     * or returns null if no output path is given.
+     */
+    private CompletableFuture<List<File>> exportMergedData(String filename)
     {
-        if (cell != null)
-        {  
-            switch(cell.getCellType())
-            {
-                //case Cell.CELL_TYPE_STRING:
-                case STRING:
-                    return cell.getStringCellValue();
-                //case Cell.CELL_TYPE_NUMERIC:
-                case NUMERIC:
-                    return nf.format(cell.getNumericCellValue());
-            }
+        if (outputPath == null)
+        {
+            return null;
         }
-        
-        return "";
+        MergedDataExporter exporter = new MergedDataExporter(dialogueDataset, annotationDataset, annotators, this::systemId);
+        return exporter.export(outputPath, filename, MergedDataExporter.Format.of(mergedDataFormat), isSharded, threads);
     }
     
-    private Date getDateValue(Cell cell)
+    /**
+     * Waits for the export of merged data started by {@link #exportMergedData(String)}.
+     */
+    private void awaitMergedData(CompletableFuture<List<File>> future)
     {
-        if (cell != null)
-        {  
-            switch(cell.getCellType())
-            {
-                case STRING:
-                // case Cell.CELL_TYPE_STRING:
-                    if (cell.getStringCellValue().contains("/"))
-                    {
-                        
-                        return DateUtil.parseYYYYMMDDDate(cell.getStringCellValue());
-                    }
-                    else
-                    {
-                        return DateTimeFormat.parseDDMMYYYYHHMMSS(cell.getStringCellValue());
-                    }
-                //case Cell.CELL_TYPE_NUMERIC:
-                case NUMERIC:
-                    return cell.getDateCellValue();
-            }
+        if (future == null)
+        {
+            return;
         }
-        
-        return null;
-    }
-
-    private void mergeData(String filename)
-    {
-        Workbook wb = null;
         try
         {
-            wb = new SXSSFWorkbook();
-            Sheet sheet = wb.createSheet("Merged");
-            
-            CreationHelper createHelper = wb.getCreationHelper();
-            CellStyle cellStyle = wb.createCellStyle();
-            short style = createHelper.createDataFormat().getFormat("yyyy/mm/dd h:mm");
-            cellStyle.setDataFormat(style);
-            
-            // write headers
-            int nRow = 0;
-            Row row = (row = sheet.getRow(nRow)) == null ? sheet.createRow(nRow) : row;
-            int nCol = 0;
-            Cell cell;
-            cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-            for (String fieldName : BreakDownAnnotatedUtterance.getFieldNames())
-            {   
-                ++nCol;
-                cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-                //cell.setCellType(Cell.CELL_TYPE_STRING);
-                cell.setCellValue(fieldName);
-            }
-            for (String aid : annotators)
-            {
-                for (String fieldName : ErrorCategoryAnnotatedUtterance.getErrorCategoryAnnotationFieldNames())
-                {  
-                    ++nCol;
-                    cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-                    //cell.setCellType(Cell.CELL_TYPE_STRING);
-                    cell.setCellValue(fieldName);  
-                }
-            }
-            
-            ++nCol;
-            cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-            //cell.setCellType(Cell.CELL_TYPE_STRING);
-            cell.setCellValue(FieldName.BreakdownCategory.getName());  
-            ++nCol;
-            cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-            //cell.setCellType(Cell.CELL_TYPE_STRING);
-            cell.setCellValue(FieldName.Remark.getName()); 
-            
-            // write body
-            for (String did : dialogueDataset.getDialogueIds())
-            {
-                Dialogue d = dialogueDataset.getDialogue(did);
-                
-                for (Utterance u : d.getUtterances())
-                {
-                    BreakDownAnnotatedTurn dbTurn = new BreakDownAnnotatedTurn(u);
-                    
-                    ++nRow;
-                    row = (row = sheet.getRow(nRow)) == null ? sheet.createRow(nRow) : row;
-                    BreakDownAnnotatedUtterance bdau = (BreakDownAnnotatedUtterance)u;
-                    dbTurn.numAnnotations = bdau.getNumAnnotation();
-                    dbTurn.numOs = (int)bdau.getNumO();
-                    dbTurn.numTs = (int)bdau.getNumT();
-                    dbTurn.numXs = (int)bdau.getNumX();
-                    nCol = 0;
-                    cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-                    //cell.setCellType(Cell.CELL_TYPE_STRING);
-                    cell.setCellValue((String)u.getValue(FieldName.FileName));
-                    for (String fieldName : BreakDownAnnotatedUtterance.getFieldNames())
-                    {
-                        ++nCol;
-                        cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-                        Field<?> field = bdau.getField(fieldName);
-                        //cell.setCellType(field.gettype().getEcelCellType());
-                        switch (field.gettype())
-                        {
-                            case String:
-                                cell.setCellValue((String)bdau.getValue(fieldName));
-                                break;
-                            case Integer:
-                                cell.setCellValue((Integer)bdau.getValue(fieldName));
-                                break;
-                            case Double:
-                                cell.setCellValue((Double)bdau.getValue(fieldName));
-                                break;
-                            case Date:
-                                cell.setCellValue((Date)bdau.getValue(fieldName));
-                                cell.setCellStyle(cellStyle);
-                                break;
-                            default:
-                                cell.setCellValue((String)bdau.getValue(fieldName));
-                                break;
-                        }
-                        
-                    }
-
-                    boolean isBreakdown = false;
-                    HashMap<String, Integer> bdLabels = new HashMap<>();
-                    for (String aid : annotators)
-                    {
-                        Map<String, ErrorCategoryAnnotatedUtterance<String>> utterances =  annotationDataset.getAnnotations(aid);
-                        ErrorCategoryAnnotatedUtterance<String> ecau = utterances.get(bdau.getId());
-                        if (ecau != null)
-                        {
-                            isBreakdown = true;
-                            for (String fieldName : ErrorCategoryAnnotatedUtterance.getErrorCategoryAnnotationFieldNames())
-                            {
-                                ++nCol;
-                                cell = (cell = row.getCell(nCol)) == null ? row.createCell(nCol) : cell;
-                                Field<?> field = ecau.getField(fieldName);
-                                //cell.setCellType(field.gettype().getEcelCellType());
-                                switch (field.gettype())
-                                {
-                                    case String:
-                                        cell.setCellValue((String)ecau.getValue(fieldName));
-                                        break;
-                                    case Integer:
-                                        cell.setCellValue((Integer)ecau.getValue(fieldName));
-                                        break;
-                                    case Double:
-                                        cell.setCellValue((Double)ecau.getValue(fieldName));
-                                        break;
-                                    default:
-                                        cell.setCellValue((String)ecau.getValue(fieldName));
-                                        break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-            
-            if (outputPath != null)
+            for (File f : future.get())
             {
-                Path savePath = Paths.get(outputPath, filename + ".xlsx");
-                FileOutputStream out = new FileOutputStream(new File(savePath.toAbsolutePath().toString()));
-                wb.write(out);
-                out.close();
-                wb.close();
-                FootPrint.info("Merged data output to {0}. (File: {1})", outputPath, savePath.toAbsolutePath().toString());
+                FootPrint.info("Merged data output to {0}. (File: {1})", outputPath, f.getAbsolutePath());
             }
         }
-        catch (Exception e)
+        catch (InterruptedException | ExecutionException e)
         {
             e.printStackTrace();
-            if (wb != null)
-            {
-                try
-                {
-                    wb.close();
-                }
-                catch (Exception e2)
-                {
-                    e2.printStackTrace();
-                }
-            }
         }
     }
     
@@ -548,7 +676,7 @@ public class IAATool  extends CliTool
         }
     }
    
-    private void printFreq(WeightedKappa<String, String> wk, String annotator)
+    private void printFreq(WeightedKappa<UtteranceKey, String> wk, String annotator)
     {
         List<String> category = wk.getCategory();
         Map<String, Double> freq = wk.getFreq(annotator);
@@ -560,7 +688,7 @@ public class IAATool  extends CliTool
         FootPrint.info("Frequency of category for " + annotator + "\n" + sb.toString());
     }
     
-    private void printFreq(WeightedFleissKappa<String, String> wk, String annotator)
+    private void printFreq(WeightedFleissKappa<UtteranceKey, String> wk, String annotator)
     {
         List<String> category = wk.getCategory();
         Map<String, Double> wfreq = wk.getWeightedFreq(annotator);
@@ -590,6 +718,57 @@ public class IAATool  extends CliTool
         FootPrint.info("Weighted Frequency of category for " + annotator + "\n" + sb.toString());
     }
     
+    private void printBootstrap(WeightedFleissKappa<UtteranceKey, String> wfk)
+    {
+        KappaBootstrap<UtteranceKey, String> bootstrap;
+        if (bootstrapCluster)
+        {
+            bootstrap = new KappaBootstrap<>(wfk, uid -> uid.getDialogueKey());
+        }
+        else
+        {
+            bootstrap = new KappaBootstrap<>(wfk);
+        }
+        bootstrap.setParallelism(threads);
+        bootstrap.resample(bootstrapReplicates, seed);
+        
+        FootPrint.show("Bootstrap: [Replicates: {0}, Units: {1} {2}]", bootstrapReplicates, bootstrap.getNumUnits(), bootstrapCluster ? "dialogues" : "utterances");
+        FootPrint.show("Agreement (percentile): " + bootstrap.getAgreementPercentileInterval(confidenceLevel));
+        FootPrint.show("Agreement (BCa): " + bootstrap.getAgreementBCaInterval(confidenceLevel));
+        FootPrint.show("Weigted Fleiss' Kappa (percentile): " + bootstrap.getKappaPercentileInterval(confidenceLevel));
+        FootPrint.show("Weigted Fleiss' Kappa (BCa): " + bootstrap.getKappaBCaInterval(confidenceLevel));
+    }
+    
+    private void printJackknife(AnnotatorJackknife jk)
+    {
+        FootPrint.show("Leave-one-annotator-out:\n" + jk.toString());
+    }
+    
+    private void writeStatistics(AgreementStatistics<String> stats, String path)
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path))))
+        {
+            stats.write(out);
+            FootPrint.show("Agreement statistics were written: " + path);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to write agreement statistics: " + path, e);
+        }
+    }
+    
+    private AgreementStatistics<String> readStatistics(File f)
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f))))
+        {
+            return AgreementStatistics.read(in, getCategory());
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to read agreement statistics: " + f.getAbsolutePath(), e);
+        }
+    }
+    
     private String bareId(String dialogueId)
     {
         String[] parts = dialogueId.split("-");
@@ -603,16 +782,26 @@ public class IAATool  extends CliTool
     }
     
     /**
-     * PENDING: Get the system ID from a file name.
-     * 
-     * @param fileName
-     * @return
+     * Returns the system ID of a file, which is the part after "_" of a name like "[trial]_[system].xlsx",
+     * or the name of the parent directory for a name without "_" such as "1470622872.log.json".
      */
-    private String systemId(String fileName)
+    private static String systemIdOf(File f)
     {
-        String[] parts = fileName.split("\\.");
+        String[] parts = f.getName().split("\\.");
         parts = parts[0].split("_");
-        return parts[1];
+        if (parts.length > 1)
+        {
+            return parts[1];
+        }
+        return f.getAbsoluteFile().getParentFile().getName();
+    }
+    
+    /**
+     * Returns the system ID of a loaded file.
+     */
+    private String systemId(String fileName)
+    {
+        return systemIds.get(fileName);
     }
     
     /**
@@ -632,10 +821,10 @@ public class IAATool  extends CliTool
         {
             FootPrint.info("Loading data...");
             loadData(inputPath);
-            mergeData(targetErrorCategory);
+            CompletableFuture<List<File>> export = exportMergedData(targetErrorCategory);
            
-            Map<String, AnnotationMatrix<String, String>> annotations = annotationDataset.getAnnotationMatrices(Arrays.asList(new String[] {annotator1, annotator2}));
-            WeightedKappa<String, String> wk = new WeightedKappa<>(annotations);
+            Map<String, AnnotationMatrix<UtteranceKey, String>> annotations = annotationDataset.getAnnotationMatrices(Arrays.asList(new String[] {annotator1, annotator2}));
+            WeightedKappa<UtteranceKey, String> wk = new WeightedKappa<>(annotations);
             double agreement = wk.getAgreement();
             double kappa  = wk.getKappa();       
             FootPrint.show("Agreement: " + DoubleFormat.round(agreement, -3));
@@ -645,6 +834,8 @@ public class IAATool  extends CliTool
             printFreq(wk, annotator2);
             
             wk.getConfusionMatrix().show();
+            
+            awaitMergedData(export);
         }
     }
     
@@ -665,13 +856,29 @@ public class IAATool  extends CliTool
         {
             FootPrint.info("Loading data...");
             loadData(inputPath);
-            mergeData(targetErrorCategory);
+            CompletableFuture<List<File>> export = exportMergedData(targetErrorCategory);
             
-           StringBuilder sbAgreements = new StringBuilder("," + concat(targetAnnotatorList, ","));
-           StringBuilder sbKappas = new StringBuilder("," + concat(targetAnnotatorList, ","));
-           List<Double> agreements = new ArrayList<>();
-           List<Double> kappas = new ArrayList<>();
-           for (int i = 0; i < targetAnnotatorList.size(); i++)
+            // agreements and kappa coefficients of all pairs in a single scan
+            Map<String, AnnotationMatrix<UtteranceKey, String>> all = annotationDataset.getAnnotationMatrices(targetAnnotatorList);
+            Map<String, AnnotationMatrix<UtteranceKey, String>> annotations = new LinkedHashMap<>();
+            for (String aid : targetAnnotatorList)
+            {
+                if (!all.containsKey(aid))
+                {
+                    throw new RuntimeException("No annotation data found for annotator: " + aid);
+                }
+                annotations.put(aid, all.get(aid));
+            }
+            PairwiseKappa<UtteranceKey, String> pk = new PairwiseKappa<>(annotations);
+            pk.setParallelism(threads);
+            IndexedMatrix<String, String> agreementMatrix = pk.getAgreementMatrix();
+            IndexedMatrix<String, String> kappaMatrix = pk.getKappaMatrix();
+            
+            StringBuilder sbAgreements = new StringBuilder("," + concat(targetAnnotatorList, ","));
+            StringBuilder sbKappas = new StringBuilder("," + concat(targetAnnotatorList, ","));
+            List<Double> agreements = new ArrayList<>();
+            List<Double> kappas = new ArrayList<>();
+            for (int i = 0; i < targetAnnotatorList.size(); i++)
             {
                 annotator1 = targetAnnotatorList.get(i);
                 sbAgreements.append("\n").append(annotator1);
@@ -684,10 +891,8 @@ public class IAATool  extends CliTool
                 for (int j = i + 1; j < targetAnnotatorList.size(); j++)
                 {
                     annotator2 = targetAnnotatorList.get(j);
-                    Map<String, AnnotationMatrix<String, String>> annotations = annotationDataset.getAnnotationMatrices(Arrays.asList(new String[] {annotator1, annotator2}));
-                    WeightedKappa<String, String> wk = new WeightedKappa<>(annotations);
-                    double agreement = wk.getAgreement();
-                    double kappa  = wk.getKappa();       
+                    double agreement = agreementMatrix.get(annotator1, annotator2);
+                    double kappa  = kappaMatrix.get(annotator1, annotator2);
                     sbAgreements.append("," + DoubleFormat.round(agreement, -3));
                     sbKappas.append("," + DoubleFormat.round(kappa, -3));
                     agreements.add(agreement);
@@ -701,6 +906,8 @@ public class IAATool  extends CliTool
             FootPrint.show("Cohen's Kappa coefficients:\n" + sbKappas.toString());
             VarianceEstimator<Double> kappasVariance =  new VarianceEstimator<>(kappas);
             FootPrint.show("Average and deviation of Cohen''s Kappa coefficients: {0} ± {1}", kappasVariance.getAverage(), kappasVariance.getUnbiasedDeviation());
+            
+            awaitMergedData(export);
         }
     }
     
@@ -718,7 +925,7 @@ public class IAATool  extends CliTool
         {
             FootPrint.show("Loading data...");
             loadData(inputPath);
-            mergeData(targetErrorCategory);
+            CompletableFuture<List<File>> export = exportMergedData(targetErrorCategory);
             
             StringBuilder sb = new StringBuilder("Loaded Data Statistics:");
             for (String sid : dialogueSessionAndTurnId.keySet())
@@ -734,12 +941,32 @@ public class IAATool  extends CliTool
             FootPrint.info(sb.toString());
 
             
-            Map<String, AnnotationMatrix<String, String>> annotations = annotationDataset.getAnnotationMatrices(targetAnnotatorList);
-            WeightedFleissKappa<String, String> wfk = new WeightedFleissKappa<String, String>(annotations, errorCategoryMap.get(targetErrorCategory));
+            Map<String, AnnotationMatrix<UtteranceKey, String>> annotations = annotationDataset.getAnnotationMatrices(targetAnnotatorList);
+            WeightedFleissKappa<UtteranceKey, String> wfk = new WeightedFleissKappa<UtteranceKey, String>(annotations, errorCategoryMap.get(targetErrorCategory));
+            wfk.setParallelism(threads);
             double agreement = wfk.getAgreement();
             double kappa  = wfk.getKappa();       
             FootPrint.show("Agreement: " + DoubleFormat.round(agreement, -2));
             FootPrint.show("Weigted Fleiss' Kappa: " + DoubleFormat.round(kappa, -2));
+            if (bootstrapReplicates > 0)
+            {
+                printBootstrap(wfk);
+            }
+            if (jackknife)
+            {
+                if (annotations.size() < 3)
+                {
+                    FootPrint.warn("Jackknife requires at least three annotators.");
+                }
+                else
+                {
+                    printJackknife(wfk.getJackknife());
+                }
+            }
+            if (statePath != null)
+            {
+                writeStatistics(wfk.getStatistics(), statePath);
+            }
             VarianceEstimator<Double> labelCarinality = wfk.getLabelCardinarity();
             VarianceEstimator<Double> labelDensity = wfk.getLabelDensity();
             FootPrint.info("Average label cardinality: {0} ± {1}", labelCarinality.getAverage(), labelCarinality.getUnbiasedDeviation());
@@ -773,59 +1000,217 @@ public class IAATool  extends CliTool
             FootPrint.info("Confusion matrix whose diagonal is normalized.");
             IndexedMatrix<String, String> vm = cm.getVariationMatrix();
             vm.show(-3);
+            
+            awaitMergedData(export);
         }
     }
     
-    static class BreakDownAnnotatedTurn
+    /**
+     * Merges agreement statistics written by workers with the state option, 
+     * each of which was computed on a disjoint set of subjects.
+     */
+    public class MergeStatisticsCommand extends AbstractCommand
     {
-        public Map<String, String> dbCatsMap;
-        
-        public Map<String, String[]> dbCatsArrayMap;
+        public final static String NAME = "merge-state";
         
-        public int numAnnotations;
-        
-        public int numOs;
-        
-        public int numTs;
+        public MergeStatisticsCommand()
+        {
+            super("Merges agreement statistics.");
+        }
         
-        public int numXs;
+        @Override
+        public void perform(Map<String, Object> parameters)
+        {
+            List<File> files;
+            if (new File(inputPath).isDirectory())
+            {
+                files = getFiles(inputPath);
+                files.sort((f1, f2) -> f1.getName().compareTo(f2.getName()));
+            }
+            else
+            {
+                files = Arrays.asList(new File(inputPath));
+            }
+            
+            AgreementStatistics<String> stats = null;
+            for (File f : files)
+            {
+                FootPrint.show("Loading agreement statistics: " + f.getAbsolutePath());
+                AgreementStatistics<String> partial = readStatistics(f);
+                FootPrint.info("Annotators: [{0}], Subjects: [{1}]", concat(partial.getAnnotators(), ","), partial.getNumSubjects());
+                stats = stats == null ? partial : stats.merge(partial);
+            }
+            if (stats == null)
+            {
+                throw new RuntimeException("No agreement statistics found: " + inputPath);
+            }
+            
+            FootPrint.show("Subjects: " + stats.getNumSubjects());
+            FootPrint.show("Agreement: " + DoubleFormat.round(stats.getAgreement(), -2));
+            FootPrint.show("Weigted Fleiss' Kappa: " + DoubleFormat.round(stats.getKappa(), -2));
+            if (jackknife)
+            {
+                if (stats.getNumAnnotators() < 3)
+                {
+                    FootPrint.warn("Jackknife requires at least three annotators.");
+                }
+                else
+                {
+                    printJackknife(new AnnotatorJackknife(stats));
+                }
+            }
+            if (statePath != null)
+            {
+                writeStatistics(stats, statePath);
+            }
+        }
+    }
+    
+    /**
+     * Writes annotation matrices of loaded data into a packed binary corpus.
+     */
+    public class ExportCorpusCommand extends AbstractCommand
+    {
+        public final static String NAME = "export-bin";
         
-        public String bdCats;
+        public ExportCorpusCommand()
+        {
+            super("Exports annotations into a binary corpus.");
+        }
         
-        public String[] bdCatsArray;
-
-        public String speaker;
-
-        public String time;
-
-        public int turnIndex;
+        @Override
+        public void perform(Map<String, Object> parameters)
+        {
+            if (outputPath == null)
+            {
+                throw new RuntimeException("Output path is not specified.");
+            }
+            
+            FootPrint.show("Loading data...");
+            loadData(inputPath);
+            
+            Map<String, AnnotationMatrix<UtteranceKey, String>> annotations = annotationDataset.getAnnotationMatrices(targetAnnotatorList);
+            File f = new File(outputPath, "corpus-" + targetErrorCategory + ".bin");
+            try
+            {
+                AnnotationCorpus.write(annotations, f);
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("Failed to write a corpus: " + f.getAbsolutePath(), e);
+            }
+            FootPrint.show("Corpus written: {0} (Annotators: [{1}], Size: [{2}] bytes)", f.getAbsolutePath(), concat(new ArrayList<>(annotations.keySet()), ","), f.length());
+        }
+    }
+    
+    /**
+     * Computes the agreement of annotators in a binary corpus written by the export-bin command.
+     */
+    public class CorpusAgreementCommand extends AbstractCommand
+    {
+        public final static String NAME = "maa-bin";
         
-        public String utterance;
+        public CorpusAgreementCommand()
+        {
+            super("Computes the agreement of a binary corpus.");
+        }
         
-        public BreakDownAnnotatedTurn()
+        @Override
+        public void perform(Map<String, Object> parameters)
         {
-            dbCatsMap = new HashMap<>();
-            dbCatsArrayMap = new HashMap<>();
-            bdCats = "";
+            File f = new File(inputPath);
+            AnnotationCorpus corpus;
+            try
+            {
+                corpus = AnnotationCorpus.open(f);
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("Failed to open a corpus: " + f.getAbsolutePath(), e);
+            }
+            FootPrint.info("Annotators: [{0}], Subjects: [{1}]", concat(corpus.getAnnotators(), ","), corpus.getNumSubjects());
+            
+            Map<String, AnnotationMatrix<UtteranceKey, String>> annotations = targetAnnotatorArray == null ? corpus.getAnnotationMatrices() : corpus.getAnnotationMatrices(Arrays.asList(targetAnnotatorArray));
+            WeightedFleissKappa<UtteranceKey, String> wfk = new WeightedFleissKappa<UtteranceKey, String>(annotations, errorCategoryMap.get(targetErrorCategory));
+            wfk.setParallelism(threads);
+            FootPrint.show("Agreement: " + DoubleFormat.round(wfk.getAgreement(), -2));
+            FootPrint.show("Weigted Fleiss' Kappa: " + DoubleFormat.round(wfk.getKappa(), -2));
+            if (bootstrapReplicates > 0)
+            {
+                printBootstrap(wfk);
+            }
+            if (jackknife)
+            {
+                if (annotations.size() < 3)
+                {
+                    FootPrint.warn("Jackknife requires at least three annotators.");
+                }
+                else
+                {
+                    printJackknife(wfk.getJackknife());
+                }
+            }
+            if (statePath != null)
+            {
+                writeStatistics(wfk.getStatistics(), statePath);
+            }
         }
+    }
+    
+    /**
+     * Generates a synthetic corpus of annotated files in the directory layout of annotated files.
+     */
+    public class GenerateCorpusCommand extends AbstractCommand
+    {
+        public final static String NAME = "gen";
         
-        public BreakDownAnnotatedTurn(Utterance u)
+        public GenerateCorpusCommand()
         {
-            this();
-            speaker = u.getValue(FieldName.Speaker);
-            time = DateTimeFormat.format((Date)u.getValue(FieldName.Time));
-            turnIndex = u.getValue(FieldName.TurnIndex);
-            utterance = u.getValue(FieldName.Utterance);
+            super("Generates a synthetic corpus of annotated files.");
         }
         
-        public boolean isBreakdown()
-        {
-          BreakDownAnnotatedUtterance u = new BreakDownAnnotatedUtterance();
-          u.setValue(FieldName.NumAnnotation, numAnnotations);
-          u.setValue(FieldName.NumO, numOs);
-          u.setValue(FieldName.NumT, numTs);
-          u.setValue(FieldName.NumX, numXs);
-          return BreakdownClassifier.isBreakdown(u);
+        @Override
+        public void perform(Map<String, Object> parameters)
+        {
+            if (outputPath == null)
+            {
+                throw new RuntimeException("Output path is not specified.");
+            }
+            
+            CorpusGenerator generator = new CorpusGenerator(getCategory());
+            if (targetAnnotatorArray != null)
+            {
+                generator.setAnnotators(Arrays.asList(targetAnnotatorArray));
+            }
+            else
+            {
+                generator.setNumAnnotators(numAnnotators);
+            }
+            generator.setNumSubjects(numSubjects);
+            generator.setNumTrials(numTrials);
+            generator.setNumSystems(numSystems);
+            generator.setMultiLabelRate(multiLabelRate);
+            generator.setCopyRate(copyRate);
+            if (targetKappa != null)
+            {
+                generator.setTargetKappa(targetKappa);
+            }
+            generator.setMissingRate(missingRate);
+            generator.setSeed(seed);
+            generator.setParallelism(threads);
+            
+            FootPrint.info("Copy Rate: [{0}]", generator.getCopyRate());
+            FootPrint.show("Generating data...");
+            List<File> files;
+            try
+            {
+                files = generator.generate(new File(outputPath));
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("Failed to generate a corpus: " + outputPath, e);
+            }
+            FootPrint.show("Corpus generated: {0} (Annotators: [{1}], Subjects: [{2}], Files: [{3}])", new File(outputPath).getAbsolutePath(), concat(generator.getAnnotators(), ","), generator.getNumSubjects(), files.size());
         }
     }
     
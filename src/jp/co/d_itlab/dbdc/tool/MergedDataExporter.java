@@ -0,0 +1,705 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.dbdc.tool;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import jp.co.d_itlab.dbdc.excel.BreakDownAnnotatedUtterance;
+import jp.co.d_itlab.dbdc.excel.ErrorCategoryAnnotatedUtterance;
+import jp.co.d_itlab.dbdc.excel.FieldName;
+import jp.co.d_itlab.dbdc.excel.Utterance;
+import jp.co.d_itlab.dbdc.excel.UtteranceKey;
+import jp.co.d_itlab.dbdc.model.AnnotationDataset;
+import jp.co.d_itlab.dbdc.model.Dialogue;
+import jp.co.d_itlab.dbdc.model.DialogueDataset;
+
+/**
+ * Exports loaded data merged over annotators into workbooks on background threads.
+ *
+ * The values to be written are copied from the datasets into a snapshot when an exporter is created,
+ * so that writing never touches the datasets and can overlap with computation on them.
+ * Rows may be sharded into a file per dialogue system, and the files are written in parallel.
+ *
+ * Besides workbooks, the data can be written as a gzipped CSV file or a binary columnar file in constant memory.
+ * In both, each annotator has its own columns named "[annotator]:[field]", which are empty if the annotator has no annotation.
+ * The binary file is laid out as follows, in big endian:
+ * <pre>
+ * header: int MAGIC, int VERSION, int #columns, (string name, byte type) * #columns
+ * groups: (int #rows, (int #bytes, values of a column) * #columns) * #groups, int 0
+ * footer: long #rows, int #labels, string * #labels, long offset of footer, int MAGIC
+ * </pre>
+ * where a string is its length in UTF-8 (-1 for null) followed by its bytes,
+ * and the values are strings, ints (MIN_VALUE for null), doubles (NaN for null), longs of milliseconds (MIN_VALUE for null)
+ * or indices of labels in the footer (-1 for null) by the type of the column.
+ * Annotators and breakdown categories are written as labels.
+ */
+public class MergedDataExporter
+{
+    private final static FieldName[] FIELDS = toFieldNames(BreakDownAnnotatedUtterance.getFieldNames());
+    private final static FieldName[] ANNOTATION_FIELDS = toFieldNames(ErrorCategoryAnnotatedUtterance.getErrorCategoryAnnotationFieldNames());
+
+    public final static int MAGIC = 0x57464B4D;
+    public final static int VERSION = 1;
+
+    public final static byte TYPE_STRING = 0;
+    public final static byte TYPE_INT = 1;
+    public final static byte TYPE_DOUBLE = 2;
+    public final static byte TYPE_TIME = 3;
+    public final static byte TYPE_LABEL = 4;
+
+    private final static int ROWS_PER_GROUP = 4096;
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Format of exported files.
+     */
+    public enum Format
+    {
+        XLSX(".xlsx"), CSV(".csv.gz"), BIN(".bin");
+
+        private String extension;
+
+        private Format(String extension)
+        {
+            this.extension = extension;
+        }
+
+        public String getExtension()
+        {
+            return extension;
+        }
+
+        public static Format of(String name)
+        {
+            for (Format format : values())
+            {
+                if (format.name().equalsIgnoreCase(name))
+                {
+                    return format;
+                }
+            }
+            throw new RuntimeException("Invalid format: " + name);
+        }
+    }
+
+    private List<String> annotators;
+
+    // columns of CSV and binary files
+    private List<Column> columns = new ArrayList<>();
+
+    // rows of each dialogue system in the order of dialogues
+    private Map<String, List<MergedRow>> rows = new LinkedHashMap<>();
+
+    /**
+     * Takes a snapshot of the datasets.
+     *
+     * @param systemIdOf - gives the ID of the dialogue system from a file name
+     */
+    public MergedDataExporter(DialogueDataset dialogueDataset, AnnotationDataset<String> annotationDataset, List<String> annotators, Function<String, String> systemIdOf)
+    {
+        this.annotators = Collections.unmodifiableList(new ArrayList<>(annotators));
+
+        for (int i = 0; i < FIELDS.length; i++)
+        {
+            columns.add(new Column(FIELDS[i].getName(), typeOf(FIELDS[i]), -1, i));
+        }
+        for (int a = 0; a < annotators.size(); a++)
+        {
+            for (int i = 0; i < ANNOTATION_FIELDS.length; i++)
+            {
+                FieldName fieldName = ANNOTATION_FIELDS[i];
+                boolean isLabel = fieldName == FieldName.Annotator || fieldName == FieldName.BreakdownCategory;
+                columns.add(new Column(annotators.get(a) + ":" + fieldName.getName(), isLabel ? TYPE_LABEL : typeOf(fieldName), a, i));
+            }
+        }
+
+        // maps of annotators are looked up once
+        List<Map<UtteranceKey, ErrorCategoryAnnotatedUtterance<String>>> annotations = new ArrayList<>();
+        for (String aid : annotators)
+        {
+            annotations.add(annotationDataset.getAnnotations(aid));
+        }
+
+        for (String did : dialogueDataset.getDialogueIds())
+        {
+            Dialogue d = dialogueDataset.getDialogue(did);
+            for (Utterance u : d.getUtterances())
+            {
+                MergedRow row = new MergedRow();
+                row.fileName = u.getValue(FieldName.FileName);
+                row.values = getValues(u, FIELDS);
+                row.annotations = new Object[annotators.size()][];
+                for (int a = 0; a < annotations.size(); a++)
+                {
+                    ErrorCategoryAnnotatedUtterance<String> ecau = annotations.get(a) == null ? null : annotations.get(a).get(u.getUtteranceKey());
+                    if (ecau != null)
+                    {
+                        row.annotations[a] = getValues(ecau, ANNOTATION_FIELDS);
+                    }
+                }
+
+                String sid = systemIdOf.apply(row.fileName);
+                if (!rows.containsKey(sid))
+                {
+                    rows.put(sid, new ArrayList<>());
+                }
+                rows.get(sid).add(row);
+            }
+        }
+    }
+
+    public List<String> getSystemIds()
+    {
+        return new ArrayList<>(rows.keySet());
+    }
+
+    public int getNumRows()
+    {
+        int n = 0;
+        for (List<MergedRow> r : rows.values())
+        {
+            n += r.size();
+        }
+        return n;
+    }
+
+    /**
+     * Starts writing workbooks on background threads, and returns the future of the written files.
+     */
+    public CompletableFuture<List<File>> export(String outputPath, String filename, boolean isSharded, int parallelism)
+    {
+        return export(outputPath, filename, Format.XLSX, isSharded, parallelism);
+    }
+
+    /**
+     * Starts writing files on background threads, and returns the future of the written files.
+     * A file named "[filename].[extension]" is written, or "[filename]_[system ID].[extension]" for each dialogue system if sharded.
+     *
+     * @param parallelism - the number of files written at once
+     */
+    public CompletableFuture<List<File>> export(String outputPath, String filename, Format format, boolean isSharded, int parallelism)
+    {
+        Map<File, List<MergedRow>> shards = new LinkedHashMap<>();
+        if (isSharded)
+        {
+            for (String sid : rows.keySet())
+            {
+                shards.put(new File(outputPath, filename + "_" + sid + format.getExtension()), rows.get(sid));
+            }
+        }
+        else
+        {
+            List<MergedRow> all = new ArrayList<>();
+            for (List<MergedRow> r : rows.values())
+            {
+                all.addAll(r);
+            }
+            shards.put(new File(outputPath, filename + format.getExtension()), all);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, shards.size())));
+        List<CompletableFuture<File>> futures = new ArrayList<>();
+        for (Map.Entry<File, List<MergedRow>> shard : shards.entrySet())
+        {
+            futures.add(CompletableFuture.supplyAsync(() -> write(shard.getKey(), shard.getValue(), format), pool));
+        }
+        pool.shutdown();
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(v ->
+        {
+            List<File> files = new ArrayList<>();
+            for (CompletableFuture<File> future : futures)
+            {
+                files.add(future.join());
+            }
+            return files;
+        });
+    }
+
+    private File write(File f, List<MergedRow> shard, Format format)
+    {
+        try
+        {
+            switch (format)
+            {
+                case CSV:
+                    writeCsv(f, shard);
+                    break;
+                case BIN:
+                    writeColumns(f, shard);
+                    break;
+                default:
+                    writeWorkbook(f, shard);
+                    break;
+            }
+            return f;
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to write merged data: " + f.getAbsolutePath(), e);
+        }
+    }
+
+    private void writeWorkbook(File f, List<MergedRow> shard) throws IOException
+    {
+        SXSSFWorkbook wb = new SXSSFWorkbook();
+        try
+        {
+            Sheet sheet = wb.createSheet("Merged");
+            CellStyle cellStyle = wb.createCellStyle();
+            cellStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy/mm/dd h:mm"));
+
+            // write headers
+            int nRow = 0;
+            Row row = sheet.createRow(nRow);
+            int nCol = 0;
+            row.createCell(nCol);
+            for (FieldName fieldName : FIELDS)
+            {
+                row.createCell(++nCol).setCellValue(fieldName.getName());
+            }
+            for (int a = 0; a < annotators.size(); a++)
+            {
+                for (FieldName fieldName : ANNOTATION_FIELDS)
+                {
+                    row.createCell(++nCol).setCellValue(fieldName.getName());
+                }
+            }
+            row.createCell(++nCol).setCellValue(FieldName.BreakdownCategory.getName());
+            row.createCell(++nCol).setCellValue(FieldName.Remark.getName());
+
+            // write body, where columns of annotators without annotations are skipped
+            for (MergedRow r : shard)
+            {
+                row = sheet.createRow(++nRow);
+                nCol = 0;
+                row.createCell(nCol).setCellValue(r.fileName);
+                for (int i = 0; i < FIELDS.length; i++)
+                {
+                    setValue(row.createCell(++nCol), FIELDS[i], r.values[i], cellStyle);
+                }
+                for (Object[] values : r.annotations)
+                {
+                    if (values != null)
+                    {
+                        for (int i = 0; i < ANNOTATION_FIELDS.length; i++)
+                        {
+                            setValue(row.createCell(++nCol), ANNOTATION_FIELDS[i], values[i], null);
+                        }
+                    }
+                }
+            }
+
+            try (OutputStream out = new FileOutputStream(f))
+            {
+                wb.write(out);
+            }
+        }
+        finally
+        {
+            try
+            {
+                wb.close();
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+            wb.dispose();
+        }
+    }
+
+    /**
+     * Writes rows into a gzipped CSV file, where fields are quoted as in RFC 4180 if needed.
+     */
+    private void writeCsv(File f, List<MergedRow> shard) throws IOException
+    {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE))
+        {
+            for (int c = 0; c < columns.size(); c++)
+            {
+                if (c > 0)
+                {
+                    writer.write(',');
+                }
+                writeCsvField(writer, columns.get(c).name);
+            }
+            writer.write("\r\n");
+
+            for (MergedRow r : shard)
+            {
+                for (int c = 0; c < columns.size(); c++)
+                {
+                    if (c > 0)
+                    {
+                        writer.write(',');
+                    }
+                    Object value = columns.get(c).valueOf(r);
+                    if (value instanceof Date)
+                    {
+                        writer.write(dateFormat.format((Date)value));
+                    }
+                    else if (value != null)
+                    {
+                        writeCsvField(writer, value.toString());
+                    }
+                }
+                writer.write("\r\n");
+            }
+        }
+    }
+
+    private static void writeCsvField(Writer writer, String field) throws IOException
+    {
+        boolean needsQuote = false;
+        for (int i = 0; i < field.length() && !needsQuote; i++)
+        {
+            char c = field.charAt(i);
+            needsQuote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuote)
+        {
+            writer.write(field);
+            return;
+        }
+
+        writer.write('"');
+        for (int i = 0; i < field.length(); i++)
+        {
+            char c = field.charAt(i);
+            if (c == '"')
+            {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Writes rows into a binary columnar file, where the columns of each group of rows are written one after another.
+     */
+    private void writeColumns(File f, List<MergedRow> shard) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            ChannelOutput out = new ChannelOutput(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(columns.size());
+            for (Column column : columns)
+            {
+                out.putString(column.name);
+                out.put(column.type);
+            }
+
+            Map<String, Integer> labelIndex = new HashMap<>();
+            List<String> labels = new ArrayList<>();
+            for (int from = 0; from < shard.size(); from += ROWS_PER_GROUP)
+            {
+                int to = Math.min(from + ROWS_PER_GROUP, shard.size());
+                out.putInt(to - from);
+                for (Column column : columns)
+                {
+                    // the length of a column is filled after its values are written
+                    long start = out.position();
+                    out.putInt(0);
+                    for (int r = from; r < to; r++)
+                    {
+                        putValue(out, column, column.valueOf(shard.get(r)), labelIndex, labels);
+                    }
+                    out.putInt(start, (int)(out.position() - start - 4));
+                }
+            }
+            out.putInt(0);
+
+            long footer = out.position();
+            out.putLong(shard.size());
+            out.putInt(labels.size());
+            for (String label : labels)
+            {
+                out.putString(label);
+            }
+            out.putLong(footer);
+            out.putInt(MAGIC);
+            out.flush();
+        }
+    }
+
+    private static void putValue(ChannelOutput out, Column column, Object value, Map<String, Integer> labelIndex, List<String> labels) throws IOException
+    {
+        switch (column.type)
+        {
+            case TYPE_INT:
+                out.putInt(value == null ? Integer.MIN_VALUE : ((Number)value).intValue());
+                break;
+            case TYPE_DOUBLE:
+                out.putDouble(value == null ? Double.NaN : ((Number)value).doubleValue());
+                break;
+            case TYPE_TIME:
+                out.putLong(value == null ? Long.MIN_VALUE : ((Date)value).getTime());
+                break;
+            case TYPE_LABEL:
+                if (value == null)
+                {
+                    out.putInt(-1);
+                }
+                else
+                {
+                    String label = value.toString();
+                    Integer index = labelIndex.get(label);
+                    if (index == null)
+                    {
+                        index = labels.size();
+                        labelIndex.put(label, index);
+                        labels.add(label);
+                    }
+                    out.putInt(index);
+                }
+                break;
+            default:
+                out.putString(value == null ? null : value.toString());
+                break;
+        }
+    }
+
+    private static byte typeOf(FieldName fieldName)
+    {
+        switch (fieldName.getType())
+        {
+            case Integer:
+                return TYPE_INT;
+            case Double:
+                return TYPE_DOUBLE;
+            case Date:
+                return TYPE_TIME;
+            default:
+                return TYPE_STRING;
+        }
+    }
+
+    private static void setValue(Cell cell, FieldName fieldName, Object value, CellStyle dateStyle)
+    {
+        if (value == null)
+        {
+            return;
+        }
+        switch (fieldName.getType())
+        {
+            case Integer:
+            case Double:
+                cell.setCellValue(((Number)value).doubleValue());
+                break;
+            case Date:
+                cell.setCellValue((Date)value);
+                if (dateStyle != null)
+                {
+                    cell.setCellStyle(dateStyle);
+                }
+                break;
+            default:
+                cell.setCellValue(value.toString());
+                break;
+        }
+    }
+
+    private static Object[] getValues(Utterance u, FieldName[] fieldNames)
+    {
+        Object[] values = new Object[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++)
+        {
+            values[i] = u.getValue(fieldNames[i]);
+        }
+        return values;
+    }
+
+    private static FieldName[] toFieldNames(List<String> names)
+    {
+        FieldName[] fieldNames = new FieldName[names.size()];
+        for (int i = 0; i < fieldNames.length; i++)
+        {
+            fieldNames[i] = FieldName.of(names.get(i));
+        }
+        return fieldNames;
+    }
+
+    /**
+     * Values of an utterance and of its annotations, which are null for annotators without annotations.
+     */
+    private static class MergedRow
+    {
+        private String fileName;
+        private Object[] values;
+        private Object[][] annotations;
+    }
+
+    /**
+     * Column of CSV and binary files, which is given by a field of an utterance or of the annotation of an annotator.
+     */
+    private static class Column
+    {
+        private String name;
+        private byte type;
+        private int annotator;
+        private int field;
+
+        /**
+         * @param annotator - index of the annotator, or -1 for fields of utterances
+         */
+        private Column(String name, byte type, int annotator, int field)
+        {
+            this.name = name;
+            this.type = type;
+            this.annotator = annotator;
+            this.field = field;
+        }
+
+        private Object valueOf(MergedRow r)
+        {
+            if (annotator >= 0)
+            {
+                return r.annotations[annotator] == null ? null : r.annotations[annotator][field];
+            }
+            return r.values[field];
+        }
+    }
+
+    /**
+     * Output to a file channel through a reused buffer.
+     */
+    private static class ChannelOutput
+    {
+        private FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long flushed = 0;
+
+        private ChannelOutput(FileChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        private long position()
+        {
+            return flushed + buffer.position();
+        }
+
+        private void put(byte b) throws IOException
+        {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        private void putInt(int i) throws IOException
+        {
+            ensure(4);
+            buffer.putInt(i);
+        }
+
+        /**
+         * Overwrites an int which has been written at a position.
+         */
+        private void putInt(long position, int i) throws IOException
+        {
+            if (position >= flushed)
+            {
+                buffer.putInt((int)(position - flushed), i);
+                return;
+            }
+            ByteBuffer b = ByteBuffer.allocate(4).putInt(0, i);
+            while (b.hasRemaining())
+            {
+                channel.write(b, position + b.position());
+            }
+        }
+
+        private void putLong(long l) throws IOException
+        {
+            ensure(8);
+            buffer.putLong(l);
+        }
+
+        private void putDouble(double d) throws IOException
+        {
+            ensure(8);
+            buffer.putDouble(d);
+        }
+
+        private void putString(String s) throws IOException
+        {
+            if (s == null)
+            {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (int offset = 0; offset < bytes.length; )
+            {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        private void ensure(int size) throws IOException
+        {
+            if (buffer.remaining() < size)
+            {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                flushed += channel.write(buffer, flushed);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,574 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing, 
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.iaa;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sufficient statistics of the weighted Fleiss' kappa coefficient.
+ * 
+ * The scores of a subject are given as an array of A x Q values, where the score of the a-th annotator for the q-th category is placed at a * Q + q.
+ * Sums over annotator pairs are obtained from the sum and the sum of squares across annotators,
+ * so that adding a subject costs O(A * Q + Q^2) instead of O(A^2 * Q^2).
+ * 
+ * Statistics of disjoint sets of subjects can be merged, and written to and read from a binary stream,
+ * so that partial statistics computed on different machines are combined into those of the union of subjects.
+ * 
+ * An instance is not thread-safe since it reuses work buffers.
+ *
+ * @param <L> - Type of labels
+ */
+public class AgreementStatistics<L>
+{
+    // "WFKS"
+    private final static int MAGIC = 0x57464B53;
+    private final static int VERSION = 2;
+    
+    private List<String> annotators;
+    private List<L> category;
+    private int A;
+    private int Q;
+    
+    // Number of subjects
+    private long n = 0;
+    
+    // Sum of the agreements normalized for each subject
+    private double agreementSum = 0.0;
+    
+    // [A * Q] the number of subjects labeled positively
+    private double[] freqs;
+    
+    // [A * Q] the sum of scores
+    private double[] wfreqs;
+    
+    // [Q] the number of annotator pairs which agree on a label
+    private double[] cofreq;
+    
+    // [A] sum of the agreements normalized for each subject where each annotator is left out
+    private double[] looAgreementSums;
+    
+    // [A] the number of subjects labeled by two or more annotators other than each annotator
+    private double[] looCounts;
+    
+    // [A] the sum of the number of labels put on a subject
+    private double[] labelCardinalities;
+    
+    // [Q * Q] confusion between labels averaged over ordered pairs of annotators
+    private double[] confusion;
+    
+    // Work buffers
+    private double[] sums;
+    private double[] squares;
+    private int[] nonZeros;
+    
+    public AgreementStatistics(List<String> annotators, List<L> category)
+    {
+        this.annotators = annotators;
+        this.category = category;
+        A = annotators.size();
+        Q = category.size();
+        freqs = new double[A * Q];
+        wfreqs = new double[A * Q];
+        cofreq = new double[Q];
+        looAgreementSums = new double[A];
+        looCounts = new double[A];
+        labelCardinalities = new double[A];
+        confusion = new double[Q * Q];
+        sums = new double[Q];
+        squares = new double[Q];
+        nonZeros = new int[Q];
+    }
+    
+    public List<String> getAnnotators()
+    {
+        return annotators;
+    }
+    
+    public List<L> getCategory()
+    {
+        return category;
+    }
+    
+    public int getNumAnnotators()
+    {
+        return A;
+    }
+    
+    public int getNumCategory()
+    {
+        return Q;
+    }
+    
+    public long getNumSubjects()
+    {
+        return n;
+    }
+    
+    /**
+     * Adds the scores of a subject.
+     * 
+     * @param scores - scores of A annotators for Q categories
+     */
+    public void add(double[] scores)
+    {
+        accumulate(scores, 1.0);
+    }
+    
+    /**
+     * Removes the scores of a subject which have been added before.
+     * 
+     * @param scores - scores of A annotators for Q categories, which must be identical to the added ones
+     */
+    public void remove(double[] scores)
+    {
+        accumulate(scores, -1.0);
+    }
+    
+    private void accumulate(double[] scores, double sign)
+    {
+        double agreement = 0.0;
+        double norm = 0.0;
+        for (int q = 0; q < Q; q++)
+        {
+            double sum = 0.0;
+            double squared = 0.0;
+            int positives = 0;
+            int negatives = 0;
+            for (int a = 0; a < A; a++)
+            {
+                double score = scores[a * Q + q];
+                sum += score;
+                squared += score * score;
+                if (score > 0.0)
+                {
+                    ++positives;
+                    freqs[a * Q + q] += sign;
+                    labelCardinalities[a] += sign;
+                }
+                else if (score < 0.0)
+                {
+                    ++negatives;
+                }
+                wfreqs[a * Q + q] += sign * score;
+            }
+            sums[q] = sum;
+            squares[q] = squared;
+            
+            // sum of products over pairs of annotators
+            agreement += 0.5 * (sum * sum - squared);
+            // each annotator appears in (A - 1) pairs
+            norm += 0.5 * (A - 1) * squared;
+            
+            // the product of a pair is positive if both are positive or both are negative
+            cofreq[q] += sign * 0.5 * (positives * (positives - 1) + negatives * (negatives - 1));
+        }
+        
+        n += (long)sign;
+        agreementSum += sign * (agreement / norm);
+        
+        // Agreements where each annotator is left out, from the sums excluding the annotator.
+        // A subject labeled by no other annotators has no agreement without the annotator, and is not counted.
+        if (A > 2)
+        {
+            for (int a = 0; a < A; a++)
+            {
+                double looAgreement = 0.0;
+                double looNorm = 0.0;
+                for (int q = 0; q < Q; q++)
+                {
+                    double score = scores[a * Q + q];
+                    double sum = sums[q] - score;
+                    double squared = squares[q] - score * score;
+                    looAgreement += 0.5 * (sum * sum - squared);
+                    looNorm += 0.5 * (A - 2) * squared;
+                }
+                if (looNorm == 0.0)
+                {
+                    continue;
+                }
+                looAgreementSums[a] += sign * (looAgreement / looNorm);
+                looCounts[a] += sign;
+            }
+        }
+        
+        // Confusion matrix over ordered pairs of distinct annotators:
+        // sum_{a != b} x_a(l1) * x_b(l2) = X(l1) * X(l2) - sum_a x_a(l1) * x_a(l2)
+        double numPairs = A * (A - 1);
+        if (numPairs == 0)
+        {
+            return;
+        }
+        int numNonZeros = 0;
+        for (int q = 0; q < Q; q++)
+        {
+            if (sums[q] != 0.0)
+            {
+                nonZeros[numNonZeros++] = q;
+            }
+        }
+        for (int i = 0; i < numNonZeros; i++)
+        {
+            int q1 = nonZeros[i];
+            for (int j = 0; j < numNonZeros; j++)
+            {
+                int q2 = nonZeros[j];
+                confusion[q1 * Q + q2] += sign * sums[q1] * sums[q2] / numPairs;
+            }
+        }
+        for (int a = 0; a < A; a++)
+        {
+            int offset = a * Q;
+            for (int q1 = 0; q1 < Q; q1++)
+            {
+                double v1 = scores[offset + q1];
+                if (v1 == 0.0)
+                {
+                    continue;
+                }
+                for (int q2 = 0; q2 < Q; q2++)
+                {
+                    double v2 = scores[offset + q2];
+                    if (v2 != 0.0)
+                    {
+                        confusion[q1 * Q + q2] -= sign * v1 * v2 / numPairs;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the normalized agreement of a subject, i.e. the sum of products of scores over pairs of annotators
+     * divided by the sum of squared scores over the same pairs.
+     * 
+     * @param scores - scores of A annotators for Q categories
+     */
+    static double agreement(double[] scores, int A, int Q)
+    {
+        double agreement = 0.0;
+        double norm = 0.0;
+        for (int q = 0; q < Q; q++)
+        {
+            double sum = 0.0;
+            double squared = 0.0;
+            for (int a = 0; a < A; a++)
+            {
+                double score = scores[a * Q + q];
+                sum += score;
+                squared += score * score;
+            }
+            agreement += 0.5 * (sum * sum - squared);
+            norm += 0.5 * (A - 1) * squared;
+        }
+        return agreement / norm;
+    }
+    
+    /**
+     * Returns the agreement by chance averaged over all pairs of annotators from the sum of scores of each annotator.
+     * 
+     * @param wfreqs - sums of scores of A annotators for Q categories
+     */
+    static double chanceAgreement(double[] wfreqs, int A, int Q)
+    {
+        return chanceAgreement(wfreqs, A, Q, -1);
+    }
+    
+    /**
+     * Returns the agreement by chance averaged over all pairs of annotators except for the excluded one.
+     * 
+     * @param wfreqs - sums of scores of A annotators for Q categories
+     * @param excluded - index of the excluded annotator, or -1
+     */
+    static double chanceAgreement(double[] wfreqs, int A, int Q, int excluded)
+    {
+        double pe = 0.0;
+        double[] totals = new double[A];
+        for (int a = 0; a < A; a++)
+        {
+            for (int q = 0; q < Q; q++)
+            {
+                totals[a] += wfreqs[a * Q + q];
+            }
+        }
+        for (int q = 0; q < Q; q++)
+        {
+            double sum = 0.0;
+            double squared = 0.0;
+            for (int a = 0; a < A; a++)
+            {
+                if (a == excluded)
+                {
+                    continue;
+                }
+                double p = wfreqs[a * Q + q] / totals[a];
+                sum += p;
+                squared += p * p;
+            }
+            pe += 0.5 * (sum * sum - squared);
+        }
+        int numAnnotators = excluded < 0 ? A : A - 1;
+        return pe / (0.5 * numAnnotators * (numAnnotators - 1));
+    }
+    
+    /**
+     * Merges statistics of another set of subjects annotated by the same annotators.
+     * Annotators are matched by their IDs, so that the order of annotators may differ.
+     * Since all statistics are sums over subjects, merging is associative and commutative.
+     */
+    public AgreementStatistics<L> merge(AgreementStatistics<L> other)
+    {
+        if (!category.equals(other.category))
+        {
+            throw new RuntimeException("Statistics of different categories can not be merged.");
+        }
+        if (annotators.size() != other.annotators.size() || !annotators.containsAll(other.annotators))
+        {
+            throw new RuntimeException("Statistics of different annotators can not be merged.");
+        }
+        
+        n += other.n;
+        agreementSum += other.agreementSum;
+        add(cofreq, other.cofreq);
+        add(confusion, other.confusion);
+        for (int a = 0; a < A; a++)
+        {
+            int b = other.annotators.indexOf(annotators.get(a));
+            for (int q = 0; q < Q; q++)
+            {
+                freqs[a * Q + q] += other.freqs[b * Q + q];
+                wfreqs[a * Q + q] += other.wfreqs[b * Q + q];
+            }
+            looAgreementSums[a] += other.looAgreementSums[b];
+            looCounts[a] += other.looCounts[b];
+            labelCardinalities[a] += other.labelCardinalities[b];
+        }
+        return this;
+    }
+    
+    /**
+     * Writes the statistics to a binary stream.
+     * Labels are written as strings.
+     */
+    public void write(DataOutput out) throws IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(A);
+        for (String aid : annotators)
+        {
+            out.writeUTF(aid);
+        }
+        out.writeInt(Q);
+        for (L l : category)
+        {
+            out.writeUTF(String.valueOf(l));
+        }
+        out.writeLong(n);
+        out.writeDouble(agreementSum);
+        write(out, freqs);
+        write(out, wfreqs);
+        write(out, cofreq);
+        write(out, looAgreementSums);
+        write(out, looCounts);
+        write(out, labelCardinalities);
+        write(out, confusion);
+    }
+    
+    /**
+     * Reads statistics written by {@link #write(DataOutput)}.
+     * 
+     * @param category - categories whose string representations must match the written labels in the same order
+     */
+    public static <L> AgreementStatistics<L> read(DataInput in, List<L> category) throws IOException
+    {
+        if (in.readInt() != MAGIC)
+        {
+            throw new IOException("Not a file of agreement statistics.");
+        }
+        int version = in.readInt();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported version of agreement statistics: " + version);
+        }
+        int A = in.readInt();
+        List<String> annotators = new ArrayList<>(A);
+        for (int a = 0; a < A; a++)
+        {
+            annotators.add(in.readUTF());
+        }
+        int Q = in.readInt();
+        if (Q != category.size())
+        {
+            throw new IOException("Inconsistent number of categories: " + Q);
+        }
+        for (int q = 0; q < Q; q++)
+        {
+            String label = in.readUTF();
+            if (!label.equals(String.valueOf(category.get(q))))
+            {
+                throw new IOException("Inconsistent category: " + label);
+            }
+        }
+        
+        AgreementStatistics<L> stats = new AgreementStatistics<>(annotators, category);
+        stats.n = in.readLong();
+        stats.agreementSum = in.readDouble();
+        read(in, stats.freqs);
+        read(in, stats.wfreqs);
+        read(in, stats.cofreq);
+        read(in, stats.looAgreementSums);
+        read(in, stats.looCounts);
+        read(in, stats.labelCardinalities);
+        read(in, stats.confusion);
+        return stats;
+    }
+    
+    private static void write(DataOutput out, double[] values) throws IOException
+    {
+        for (double v : values)
+        {
+            out.writeDouble(v);
+        }
+    }
+    
+    private static void read(DataInput in, double[] values) throws IOException
+    {
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = in.readDouble();
+        }
+    }
+    
+    private static void add(double[] to, double[] from)
+    {
+        for (int i = 0; i < to.length; i++)
+        {
+            to[i] += from[i];
+        }
+    }
+    
+    /**
+     * Returns the observed agreement, i.e. the normalized agreement averaged over subjects.
+     */
+    public double getAgreement()
+    {
+        return agreementSum / n;
+    }
+    
+    /**
+     * Returns the agreement by chance averaged over all pairs of annotators.
+     * The frequency of each annotator is normalized to the distribution over categories.
+     */
+    public double getChanceAgreement()
+    {
+        return chanceAgreement(wfreqs, A, Q);
+    }
+    
+    public double getKappa()
+    {
+        double pe = getChanceAgreement();
+        return (getAgreement() - pe) / (1 - pe);
+    }
+    
+    /**
+     * Returns the observed agreement calculated without the a-th annotator,
+     * averaged over subjects labeled by the other annotators.
+     */
+    public double getAgreementWithout(int a)
+    {
+        if (A < 3)
+        {
+            return Double.NaN;
+        }
+        return looAgreementSums[a] / looCounts[a];
+    }
+    
+    /**
+     * Returns the kappa coefficient calculated without the a-th annotator.
+     */
+    public double getKappaWithout(int a)
+    {
+        if (A < 3)
+        {
+            return Double.NaN;
+        }
+        double pe = chanceAgreement(wfreqs, A, Q, a);
+        return (getAgreementWithout(a) - pe) / (1 - pe);
+    }
+    
+    /**
+     * Returns the number of subjects on which the a-th annotator put the q-th label.
+     */
+    public double getFreq(int a, int q)
+    {
+        return freqs[a * Q + q];
+    }
+    
+    /**
+     * Returns the sum of scores which the a-th annotator put on the q-th label.
+     */
+    public double getWeightedFreq(int a, int q)
+    {
+        return wfreqs[a * Q + q];
+    }
+    
+    public double getTotalWeightedFreq(int a)
+    {
+        double sum = 0.0;
+        for (int q = 0; q < Q; q++)
+        {
+            sum += wfreqs[a * Q + q];
+        }
+        return sum;
+    }
+    
+    /**
+     * Returns the sum of scores put on the q-th label by all annotators.
+     */
+    public double getScoreSum(int q)
+    {
+        double sum = 0.0;
+        for (int a = 0; a < A; a++)
+        {
+            sum += wfreqs[a * Q + q];
+        }
+        return sum;
+    }
+    
+    public double getCofreq(int q)
+    {
+        return cofreq[q];
+    }
+    
+    public double getConfusion(int q1, int q2)
+    {
+        return confusion[q1 * Q + q2];
+    }
+    
+    /**
+     * Returns the number of labels per subject averaged over subjects for the a-th annotator.
+     */
+    public double getLabelCardinality(int a)
+    {
+        return labelCardinalities[a] / n;
+    }
+    
+    public double getLabelDensity(int a)
+    {
+        return labelCardinalities[a] / Q / n;
+    }
+}
@@ -13,13 +13,19 @@
 package jp.co.d_itlab.iaa;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Correspondance between data entry and annotations.
  * 
+ * Scores are held in a dense array laid out by the ordinal of a data entry and the ordinal of a category,
+ * i.e. the score of (i, j) is placed at i * Q + j where Q is the number of categories.
+ * Labels which are not included in the category are kept aside so that they are still visible through {@link #row(Object)}.
+ * Ordinals of data entries are given by a {@link SubjectIndex}, which may be shared among matrices of different annotators.
  *
  * @param <K> - data index type
  * @param <L> - label type
@@ -29,17 +35,55 @@ public class AnnotationMatrix<K, L>
     private String annotator;
     private List<K> data;
     private List<L> category;
-    private Map<K, Map<L, Double>> matrix;
+    private SubjectIndex<K> dataIndex;
+    private Map<L, Integer> categoryIndex;
+    private double[] scores;
+    private BitSet assigned;
+    private Map<K, Map<L, Double>> outOfCategory;
     
     public AnnotationMatrix(String annotator, List<K> data, List<L> category)
+    {
+        this(annotator, data, new SubjectIndex<>(data), category);
+    }
+    
+    /**
+     * Creates a matrix over the subjects registered in a registry so far.
+     * Rows are laid out by the ordinals of the registry, and subjects registered afterwards are not included.
+     */
+    public AnnotationMatrix(String annotator, SubjectIndex<K> subjects, List<L> category)
+    {
+        this(annotator, subjects.asList(), subjects, category);
+    }
+    
+    /**
+     * Creates a matrix over the subjects registered in a registry so far, 
+     * whose scores are not allocated if they are held by a subclass.
+     */
+    protected AnnotationMatrix(String annotator, SubjectIndex<K> subjects, List<L> category, boolean allocate)
+    {
+        this(annotator, subjects.asList(), subjects, category, allocate);
+    }
+    
+    private AnnotationMatrix(String annotator, List<K> data, SubjectIndex<K> dataIndex, List<L> category)
+    {
+        this(annotator, data, dataIndex, category, true);
+    }
+    
+    private AnnotationMatrix(String annotator, List<K> data, SubjectIndex<K> dataIndex, List<L> category, boolean allocate)
     {
         this.annotator = annotator;
         this.data = data;
+        this.dataIndex = dataIndex;
         this.category = category;
-        matrix = new HashMap<K, Map<L, Double>>(data.size());
-        for (K k : data)
+        categoryIndex = new HashMap<>(category.size() * 2);
+        for (int j = 0; j < category.size(); j++)
+        {
+            categoryIndex.put(category.get(j), j);
+        }
+        if (allocate)
         {
-            matrix.put(k, new HashMap<>());
+            scores = new double[data.size() * category.size()];
+            assigned = new BitSet(scores.length);
         }
     }
     
@@ -50,17 +94,27 @@ public class AnnotationMatrix<K, L>
     
     public boolean contains(K k, L l)
     {
-        boolean found = false;
+        int i = indexOfData(k);
+        if (i < 0)
+        {
+            return false;
+        }
         
-        if (matrix.containsKey(k))
+        int j = indexOfCategory(l);
+        if (j < 0)
         {
-            if (matrix.get(k).containsKey(l))
-            {
-                found = true;
-            }
+            return outOfCategory != null && outOfCategory.containsKey(k) && outOfCategory.get(k).containsKey(l);
         }
         
-        return found;
+        return contains(i, j);
+    }
+    
+    /**
+     * Returns true if a score is assigned to the i-th data entry for the j-th category.
+     */
+    public boolean contains(int i, int j)
+    {
+        return assigned.get(i * category.size() + j);
     }
     
     public List<L> getCategory()
@@ -83,33 +137,70 @@ public class AnnotationMatrix<K, L>
         return category.size();
     }
     
+    /**
+     * Returns the ordinal of a data entry, or -1 if it is not included in the data.
+     */
+    public int indexOfData(K k)
+    {
+        int i = dataIndex.indexOf(k);
+        return i < data.size() ? i : -1;
+    }
+    
+    /**
+     * Returns the registry which gives the ordinals of data entries.
+     */
+    public SubjectIndex<K> getSubjectIndex()
+    {
+        return dataIndex;
+    }
+    
+    /**
+     * Returns the ordinal of a label, or -1 if it is not included in the category.
+     */
+    public int indexOfCategory(L l)
+    {
+        Integer j = categoryIndex.get(l);
+        return j == null ? -1 : j;
+    }
+    
     public boolean exists(K k, L l)
     {
-        boolean found =false;
-        Map<L, Double> row = matrix.get(k);
-        if (row.containsKey(l))
-        {
-            found = true;
-        }
-        return found;
+        return contains(k, l);
+    }
+    
+    /**
+     * Returns the score of the i-th data entry for the j-th category.
+     */
+    public double get(int i, int j)
+    {
+        return scores[i * category.size() + j];
     }
     
     public double get(K k, L l)
     {
-        double value = 0.0;
-        Map<L, Double> row = matrix.get(k);
-        if (exists(k, l))
+        int i = indexOfData(k);
+        if (i < 0)
         {
-            value = row.get(l);
+            return 0.0;
         }
-        return value;
+        
+        int j = indexOfCategory(l);
+        if (j < 0)
+        {
+            Map<L, Double> row = outOfCategory == null ? null : outOfCategory.get(k);
+            return row == null || !row.containsKey(l) ? 0.0 : row.get(l);
+        }
+        
+        return get(i, j);
     }
     
-    public double add(K k, L l, double d)
+    /**
+     * Adds a score to the i-th data entry for the j-th category.
+     */
+    public double add(int i, int j, double d)
     {
-        Map<L, Double> row = matrix.get(k);
-        
-        double value = get(k, l);
+        int index = i * category.size() + j;
+        double value = scores[index];
         if (value > 0.0)
         {
             value = value + d;
@@ -118,35 +209,100 @@ public class AnnotationMatrix<K, L>
         {
             value = d;
         }
-        row.put(l, value);
+        scores[index] = value;
+        assigned.set(index);
         
         return value;
     }
     
+    public double add(K k, L l, double d)
+    {
+        int i = indexOfData(k);
+        if (i < 0)
+        {
+            throw new RuntimeException("Unknown data entry: " + k);
+        }
+        
+        int j = indexOfCategory(l);
+        if (j < 0)
+        {
+            if (outOfCategory == null)
+            {
+                outOfCategory = new HashMap<>();
+            }
+            if (!outOfCategory.containsKey(k))
+            {
+                outOfCategory.put(k, new LinkedHashMap<>());
+            }
+            Map<L, Double> row = outOfCategory.get(k);
+            double value = get(k, l);
+            value = value > 0.0 ? value + d : d;
+            row.put(l, value);
+            return value;
+        }
+        
+        return add(i, j, d);
+    }
+    
+    /**
+     * Clears the scores assigned to a data entry.
+     */
+    public void clear(K k)
+    {
+        int i = indexOfData(k);
+        if (i < 0)
+        {
+            return;
+        }
+        
+        int Q = category.size();
+        for (int j = i * Q; j < (i + 1) * Q; j++)
+        {
+            scores[j] = 0.0;
+        }
+        assigned.clear(i * Q, (i + 1) * Q);
+        if (outOfCategory != null)
+        {
+            outOfCategory.remove(k);
+        }
+    }
+    
     public double countUp(K k, L l)
     {
         return add(k, l , 1.0);
     }
     
+    /**
+     * Returns a snapshot of the scores assigned to a data entry.
+     */
     public Map<L, Double> row(K k)
     {
-        if (matrix.containsKey(k))
+        int i = indexOfData(k);
+        if (i < 0)
         {
-            return matrix.get(k);
+            return null;
         }
-        else
+        
+        Map<L, Double> row = new LinkedHashMap<>();
+        int Q = category.size();
+        for (int j = assigned.nextSetBit(i * Q); j >= 0 && j < (i + 1) * Q; j = assigned.nextSetBit(j + 1))
         {
-            return null;
+            row.put(category.get(j - i * Q), scores[j]);
+        }
+        if (outOfCategory != null && outOfCategory.containsKey(k))
+        {
+            row.putAll(outOfCategory.get(k));
         }
+        return row;
     }
     
     public List<Map<L, Double>> rows()
     {
-        List<Map<L, Double>> rows = new ArrayList<>();
-        for (K k : matrix.keySet())
+        List<Map<L, Double>> rows = new ArrayList<>(data.size());
+        for (K k : data)
         {
-            rows.add(matrix.get(k));
+            rows.add(row(k));
         }
         return rows;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.iaa;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Leave-one-annotator-out jackknife of the agreement and the weighted Fleiss' kappa coefficient.
+ *
+ * The agreement and the kappa coefficient without each annotator are obtained from the statistics accumulated in a single pass,
+ * so that no further passes over subjects are required.
+ */
+public class AnnotatorJackknife
+{
+    private List<String> annotators;
+    private double agreement;
+    private double kappa;
+    private double[] agreements;
+    private double[] kappas;
+
+    public AnnotatorJackknife(AgreementStatistics<?> stats)
+    {
+        annotators = stats.getAnnotators();
+        int A = annotators.size();
+        if (A < 3)
+        {
+            throw new RuntimeException("Jackknife requires at least three annotators: " + A);
+        }
+
+        agreement = stats.getAgreement();
+        kappa = stats.getKappa();
+        agreements = new double[A];
+        kappas = new double[A];
+        for (int a = 0; a < A; a++)
+        {
+            agreements[a] = stats.getAgreementWithout(a);
+            kappas[a] = stats.getKappaWithout(a);
+        }
+    }
+
+    public List<String> getAnnotators()
+    {
+        return Collections.unmodifiableList(annotators);
+    }
+
+    public double getAgreement()
+    {
+        return agreement;
+    }
+
+    public double getKappa()
+    {
+        return kappa;
+    }
+
+    /**
+     * Returns the agreement calculated without an annotator.
+     */
+    public double getAgreementWithout(String aid)
+    {
+        return agreements[indexOf(aid)];
+    }
+
+    /**
+     * Returns the kappa coefficient calculated without an annotator.
+     */
+    public double getKappaWithout(String aid)
+    {
+        return kappas[indexOf(aid)];
+    }
+
+    /**
+     * Returns the jackknife standard error of the agreement.
+     */
+    public double getAgreementStandardError()
+    {
+        return standardError(agreements);
+    }
+
+    /**
+     * Returns the jackknife standard error of the kappa coefficient.
+     */
+    public double getKappaStandardError()
+    {
+        return standardError(kappas);
+    }
+
+    /**
+     * Returns the annotators sorted in descending order of the kappa coefficient calculated without them,
+     * i.e. the annotator who drags the agreement down the most comes first.
+     */
+    public List<String> getAnnotatorsByInfluence()
+    {
+        List<String> sorted = new ArrayList<>(annotators);
+        sorted.sort((a1, a2) -> Double.compare(getKappaWithout(a2), getKappaWithout(a1)));
+        return sorted;
+    }
+
+    private int indexOf(String aid)
+    {
+        int a = annotators.indexOf(aid);
+        if (a < 0)
+        {
+            throw new RuntimeException("Unknown annotator: " + aid);
+        }
+        return a;
+    }
+
+    /**
+     * sqrt((A - 1) / A * sum_a (x_a - mean)^2)
+     */
+    private static double standardError(double[] values)
+    {
+        int A = values.length;
+        double mean = 0.0;
+        for (double v : values)
+        {
+            mean += v;
+        }
+        mean /= A;
+        double squared = 0.0;
+        for (double v : values)
+        {
+            squared += (v - mean) * (v - mean);
+        }
+        return Math.sqrt((A - 1) * squared / A);
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Annotator, Agreement, Kappa, Kappa difference\n");
+        for (String aid : getAnnotatorsByInfluence())
+        {
+            double k = getKappaWithout(aid);
+            sb.append(MessageFormat.format("-{0}, {1,number,0.000}, {2,number,0.000}, {3,number,+0.000;-0.000}\n", aid, getAgreementWithout(aid), k, k - kappa));
+        }
+        sb.append(MessageFormat.format("Standard error: Agreement: {0,number,0.000}, Kappa: {1,number,0.000}", getAgreementStandardError(), getKappaStandardError()));
+        return sb.toString();
+    }
+}
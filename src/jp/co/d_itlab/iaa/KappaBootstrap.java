@@ -0,0 +1,405 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing, 
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.iaa;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+import jp.co.d_itlab.math.ConfidenceInterval;
+
+/**
+ * Bootstrap confidence intervals of the agreement and the weighted Fleiss' kappa coefficient.
+ * 
+ * Subjects, or clusters of subjects such as dialogues, are resampled with replacement.
+ * The contribution of each unit (the sum of normalized agreements, the number of subjects and the sum of scores of each annotator)
+ * is computed once, so that a replicate costs O(U + nnz) where U is the number of units and nnz is the number of non-zero scores.
+ *
+ * @param <K> - data index type
+ * @param <L> - label type
+ */
+public class KappaBootstrap<K, L>
+{
+    private final static int REPLICATES_PER_TASK = 16;
+    
+    private int A;
+    private int Q;
+    
+    // Contributions of units
+    private int U;
+    private double[] unitSubjects;
+    private double[] unitAgreements;
+    private int[] offsets;
+    private int[] indices;
+    private double[] values;
+    
+    // Estimates on the original sample
+    private double agreement;
+    private double kappa;
+    
+    private int parallelism = 1;
+    private double[] agreements;
+    private double[] kappas;
+    private double[] jackknifeAgreements;
+    private double[] jackknifeKappas;
+    
+    /**
+     * Resamples subjects.
+     */
+    public KappaBootstrap(WeightedFleissKappa<K, L> wfk)
+    {
+        this(wfk, null);
+    }
+    
+    /**
+     * Resamples clusters of subjects.
+     * 
+     * @param clusterOf - returns the cluster of a subject, or null for resampling subjects.
+     */
+    public KappaBootstrap(WeightedFleissKappa<K, L> wfk, Function<K, ?> clusterOf)
+    {
+        A = wfk.getJudges().size();
+        Q = wfk.getCategory().size();
+        List<K> subjects = wfk.getSubjects();
+        int N = subjects.size();
+        
+        // Contributions of subjects
+        int[] units = new int[N];
+        double[] subjectAgreements = new double[N];
+        int[] subjectOffsets = new int[N + 1];
+        int[] subjectIndices = new int[Math.max(16, N * 2)];
+        double[] subjectValues = new double[subjectIndices.length];
+        Map<Object, Integer> unitIds = new LinkedHashMap<>();
+        double[] scores = new double[A * Q];
+        int nnz = 0;
+        for (int s = 0; s < N; s++)
+        {
+            K k = subjects.get(s);
+            if (clusterOf == null)
+            {
+                units[s] = s;
+            }
+            else
+            {
+                Object cluster = clusterOf.apply(k);
+                Integer u = unitIds.get(cluster);
+                if (u == null)
+                {
+                    u = unitIds.size();
+                    unitIds.put(cluster, u);
+                }
+                units[s] = u;
+            }
+            
+            wfk.getScores(s, scores);
+            subjectAgreements[s] = AgreementStatistics.agreement(scores, A, Q);
+            for (int i = 0; i < scores.length; i++)
+            {
+                if (scores[i] != 0.0)
+                {
+                    if (nnz == subjectIndices.length)
+                    {
+                        subjectIndices = Arrays.copyOf(subjectIndices, nnz * 2);
+                        subjectValues = Arrays.copyOf(subjectValues, nnz * 2);
+                    }
+                    subjectIndices[nnz] = i;
+                    subjectValues[nnz] = scores[i];
+                    ++nnz;
+                }
+            }
+            subjectOffsets[s + 1] = nnz;
+        }
+        U = clusterOf == null ? N : unitIds.size();
+        
+        // Group subjects by units
+        int[] first = new int[U + 1];
+        for (int s = 0; s < N; s++)
+        {
+            ++first[units[s] + 1];
+        }
+        for (int u = 0; u < U; u++)
+        {
+            first[u + 1] += first[u];
+        }
+        int[] order = new int[N];
+        int[] next = Arrays.copyOf(first, U);
+        for (int s = 0; s < N; s++)
+        {
+            order[next[units[s]]++] = s;
+        }
+        
+        // Contributions of units
+        unitSubjects = new double[U];
+        unitAgreements = new double[U];
+        offsets = new int[U + 1];
+        indices = new int[nnz];
+        values = new double[nnz];
+        double[] dense = new double[A * Q];
+        int[] touched = new int[A * Q];
+        int n = 0;
+        for (int u = 0; u < U; u++)
+        {
+            int numTouched = 0;
+            for (int o = first[u]; o < first[u + 1]; o++)
+            {
+                int s = order[o];
+                unitSubjects[u] += 1.0;
+                unitAgreements[u] += subjectAgreements[s];
+                for (int e = subjectOffsets[s]; e < subjectOffsets[s + 1]; e++)
+                {
+                    int i = subjectIndices[e];
+                    if (dense[i] == 0.0)
+                    {
+                        touched[numTouched++] = i;
+                    }
+                    dense[i] += subjectValues[e];
+                }
+            }
+            for (int t = 0; t < numTouched; t++)
+            {
+                int i = touched[t];
+                indices[n] = i;
+                values[n] = dense[i];
+                dense[i] = 0.0;
+                ++n;
+            }
+            offsets[u + 1] = n;
+        }
+        
+        // Estimates on the original sample
+        double[] totals = new double[A * Q];
+        double subjectSum = 0.0;
+        double agreementSum = 0.0;
+        for (int u = 0; u < U; u++)
+        {
+            subjectSum += unitSubjects[u];
+            agreementSum += unitAgreements[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                totals[indices[e]] += values[e];
+            }
+        }
+        agreement = agreementSum / subjectSum;
+        kappa = kappa(agreement, totals);
+    }
+    
+    public void setParallelism(int parallelism)
+    {
+        this.parallelism = Math.max(1, parallelism);
+    }
+    
+    /**
+     * Returns the number of resampled units (subjects or clusters).
+     */
+    public int getNumUnits()
+    {
+        return U;
+    }
+    
+    /**
+     * Draws bootstrap replicates.
+     * Each replicate uses its own random number generator split from the seed, so that results do not depend on the parallelism.
+     * 
+     * @param replicates - the number of bootstrap replicates
+     * @param seed - seed of random numbers
+     */
+    public void resample(int replicates, long seed)
+    {
+        agreements = new double[replicates];
+        kappas = new double[replicates];
+        
+        // independent generators split in order from the seed
+        SplittableRandom[] randoms = new SplittableRandom[replicates];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int b = 0; b < replicates; b++)
+        {
+            randoms[b] = random.split();
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            pool.invoke(new ResamplingTask(0, replicates, randoms));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+    
+    private void resample(int from, int to, SplittableRandom[] randoms)
+    {
+        double[] totals = new double[A * Q];
+        for (int b = from; b < to; b++)
+        {
+            SplittableRandom random = randoms[b];
+            Arrays.fill(totals, 0.0);
+            double subjectSum = 0.0;
+            double agreementSum = 0.0;
+            for (int i = 0; i < U; i++)
+            {
+                int u = random.nextInt(U);
+                subjectSum += unitSubjects[u];
+                agreementSum += unitAgreements[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++)
+                {
+                    totals[indices[e]] += values[e];
+                }
+            }
+            agreements[b] = agreementSum / subjectSum;
+            kappas[b] = kappa(agreements[b], totals);
+        }
+    }
+    
+    private double kappa(double agreement, double[] totals)
+    {
+        double pe = AgreementStatistics.chanceAgreement(totals, A, Q);
+        return (agreement - pe) / (1 - pe);
+    }
+    
+    /**
+     * Estimates with each unit left out, which give the acceleration of BCa intervals.
+     */
+    private void jackknife()
+    {
+        if (jackknifeAgreements != null)
+        {
+            return;
+        }
+        
+        double[] totals = new double[A * Q];
+        double subjectSum = 0.0;
+        double agreementSum = 0.0;
+        for (int u = 0; u < U; u++)
+        {
+            subjectSum += unitSubjects[u];
+            agreementSum += unitAgreements[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                totals[indices[e]] += values[e];
+            }
+        }
+        
+        jackknifeAgreements = new double[U];
+        jackknifeKappas = new double[U];
+        for (int u = 0; u < U; u++)
+        {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                totals[indices[e]] -= values[e];
+            }
+            jackknifeAgreements[u] = (agreementSum - unitAgreements[u]) / (subjectSum - unitSubjects[u]);
+            jackknifeKappas[u] = kappa(jackknifeAgreements[u], totals);
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                totals[indices[e]] += values[e];
+            }
+        }
+    }
+    
+    public double getAgreement()
+    {
+        return agreement;
+    }
+    
+    public double getKappa()
+    {
+        return kappa;
+    }
+    
+    /**
+     * Replicates and intervals are available after {@link #resample(int, long)}.
+     */
+    private void checkResampled()
+    {
+        if (agreements == null)
+        {
+            throw new IllegalStateException("Bootstrap replicates have not been drawn.");
+        }
+    }
+    
+    public double[] getAgreementReplicates()
+    {
+        checkResampled();
+        return agreements;
+    }
+    
+    public double[] getKappaReplicates()
+    {
+        checkResampled();
+        return kappas;
+    }
+    
+    public ConfidenceInterval getAgreementPercentileInterval(double level)
+    {
+        checkResampled();
+        return ConfidenceInterval.percentile(agreement, agreements, level);
+    }
+    
+    public ConfidenceInterval getAgreementBCaInterval(double level)
+    {
+        checkResampled();
+        jackknife();
+        return ConfidenceInterval.bca(agreement, agreements, jackknifeAgreements, level);
+    }
+    
+    public ConfidenceInterval getKappaPercentileInterval(double level)
+    {
+        checkResampled();
+        return ConfidenceInterval.percentile(kappa, kappas, level);
+    }
+    
+    public ConfidenceInterval getKappaBCaInterval(double level)
+    {
+        checkResampled();
+        jackknife();
+        return ConfidenceInterval.bca(kappa, kappas, jackknifeKappas, level);
+    }
+    
+    /**
+     * Splits replicates into tasks.
+     */
+    private class ResamplingTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private int from;
+        private int to;
+        private SplittableRandom[] randoms;
+        
+        public ResamplingTask(int from, int to, SplittableRandom[] randoms)
+        {
+            this.from = from;
+            this.to = to;
+            this.randoms = randoms;
+        }
+        
+        @Override
+        protected void compute()
+        {
+            if (to - from <= REPLICATES_PER_TASK)
+            {
+                resample(from, to, randoms);
+                return;
+            }
+            
+            int middle = (from + to) >>> 1;
+            invokeAll(new ResamplingTask(from, middle, randoms), new ResamplingTask(middle, to, randoms));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.iaa;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only annotation matrix whose scores are held in buffers, e.g. views of a memory-mapped file.
+ *
+ * Scores are read from the buffers on demand without being copied into the heap,
+ * where the score of (i, j) is placed at i * Q + j, and the (i * Q + j)-th bit of the assigned buffer tells whether it is assigned.
+ * Only labels in the category are held.
+ *
+ * @param <K> - data index type
+ * @param <L> - label type
+ */
+public class MappedAnnotationMatrix<K, L> extends AnnotationMatrix<K, L>
+{
+    private DoubleBuffer scores;
+    private LongBuffer assigned;
+    private int Q;
+
+    /**
+     * @param scores - N x Q scores
+     * @param assigned - bits of N x Q scores, which are packed into longs from the least significant bit
+     */
+    public MappedAnnotationMatrix(String annotator, SubjectIndex<K> subjects, List<L> category, DoubleBuffer scores, LongBuffer assigned)
+    {
+        super(annotator, subjects, category, false);
+        this.scores = scores;
+        this.assigned = assigned;
+        Q = category.size();
+
+        long size = (long)getNumData() * Q;
+        if (scores.capacity() < size || (long)assigned.capacity() * 64 < size)
+        {
+            throw new RuntimeException("Buffers are smaller than the matrix: " + getNumData() + " x " + Q);
+        }
+    }
+
+    @Override
+    public boolean contains(int i, int j)
+    {
+        int index = i * Q + j;
+        return (assigned.get(index >>> 6) & (1L << (index & 63))) != 0;
+    }
+
+    @Override
+    public boolean contains(K k, L l)
+    {
+        int i = indexOfData(k);
+        int j = indexOfCategory(l);
+        return i >= 0 && j >= 0 && contains(i, j);
+    }
+
+    @Override
+    public double get(int i, int j)
+    {
+        return scores.get(i * Q + j);
+    }
+
+    @Override
+    public double add(int i, int j, double d)
+    {
+        throw new RuntimeException("Mapped annotation matrix is read-only.");
+    }
+
+    @Override
+    public double add(K k, L l, double d)
+    {
+        throw new RuntimeException("Mapped annotation matrix is read-only.");
+    }
+
+    @Override
+    public void clear(K k)
+    {
+        throw new RuntimeException("Mapped annotation matrix is read-only.");
+    }
+
+    @Override
+    public Map<L, Double> row(K k)
+    {
+        int i = indexOfData(k);
+        if (i < 0)
+        {
+            return null;
+        }
+
+        Map<L, Double> row = new LinkedHashMap<>();
+        for (int j = 0; j < Q; j++)
+        {
+            if (contains(i, j))
+            {
+                row.put(getCategory().get(j), get(i, j));
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,346 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.iaa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import jp.co.d_itlab.math.IndexedMatrix;
+
+/**
+ * Calculates weighted kappa coefficients of all pairs of annotators in a single scan over subjects.
+ *
+ * The agreement and the kappa coefficient of each pair are identical to those given by {@link WeightedKappa}:
+ * the agreement of a subject is the inner product of the scores of two annotators divided by the average of their squared norms,
+ * and the agreement by chance is the inner product of the frequencies of two annotators divided by N^2.
+ * Subjects are given by the annotation matrix of the first annotator,
+ * and those labeled by neither of a pair are not counted in N of the pair, as if the pair were loaded alone.
+ *
+ * @param <K>- data index type
+ * @param <L> - label type
+ */
+public class PairwiseKappa<K, L>
+{
+    private Map<String, AnnotationMatrix<K, L>> data;
+    private List<String> annotators;
+    private List<AnnotationMatrix<K, L>> matrices;
+    private List<L> category;
+    private List<K> subjects;
+    private int A;
+    private int Q;
+    private int N;
+
+    // ordinals of categories in each annotation matrix
+    private int[][] categoryIndices;
+
+    // true if all matrices share a subject registry, where the ordinal of a subject is its position in subjects
+    private boolean sharedSubjectIndex;
+
+    private IndexedMatrix<String, String> agreements = null;
+    private IndexedMatrix<String, String> kappas = null;
+
+    // Number of threads
+    private int parallelism = 1;
+    private final static int MIN_CHUNK_SIZE = 1024;
+
+    public PairwiseKappa(Map<String, AnnotationMatrix<K, L>> data)
+    {
+        this.data = data;
+        if (data.size() < 2)
+        {
+            throw new RuntimeException("Weighted Kappa can not be calculated for annotation data with less than two annotators.");
+        }
+
+        annotators = new ArrayList<>(data.keySet());
+        A = annotators.size();
+        matrices = new ArrayList<>(A);
+        for (String aid : annotators)
+        {
+            matrices.add(data.get(aid));
+        }
+        category = matrices.get(0).getCategory();
+        subjects = matrices.get(0).getData();
+        Q = category.size();
+        N = subjects.size();
+
+        categoryIndices = new int[A][Q];
+        for (int a = 0; a < A; a++)
+        {
+            for (int j = 0; j < Q; j++)
+            {
+                categoryIndices[a][j] = matrices.get(a).indexOfCategory(category.get(j));
+            }
+        }
+
+        SubjectIndex<K> index = matrices.get(0).getSubjectIndex();
+        sharedSubjectIndex = index.size() >= N;
+        for (AnnotationMatrix<K, L> m : matrices)
+        {
+            if (m.getSubjectIndex() != index || m.getNumData() != N)
+            {
+                sharedSubjectIndex = false;
+            }
+        }
+    }
+
+    public List<String> getAnnotators()
+    {
+        return annotators;
+    }
+
+    public List<L> getCategory()
+    {
+        return category;
+    }
+
+    public Map<String, AnnotationMatrix<K, L>> getData()
+    {
+        return data;
+    }
+
+    /**
+     * Sets the number of threads used in the calculation.
+     *
+     * @param parallelism - the number of threads (1 for sequential calculation)
+     */
+    public void setParallelism(int parallelism)
+    {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Returns the A x A matrix of agreements, whose diagonal is filled with 1.
+     */
+    public IndexedMatrix<String, String> getAgreementMatrix()
+    {
+        if (agreements == null)
+        {
+            caculate();
+        }
+        return agreements;
+    }
+
+    /**
+     * Returns the A x A matrix of kappa coefficients, whose diagonal is filled with 1.
+     */
+    public IndexedMatrix<String, String> getKappaMatrix()
+    {
+        if (kappas == null)
+        {
+            caculate();
+        }
+        return kappas;
+    }
+
+    public double getAgreement(String aid1, String aid2)
+    {
+        return getAgreementMatrix().get(aid1, aid2);
+    }
+
+    public double getKappa(String aid1, String aid2)
+    {
+        return getKappaMatrix().get(aid1, aid2);
+    }
+
+    private void caculate()
+    {
+        PairStatistics stats;
+        if (parallelism > 1 && N > MIN_CHUNK_SIZE)
+        {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, N / (parallelism * 4));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try
+            {
+                stats = pool.invoke(new AccumulationTask(0, N, chunkSize));
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+        }
+        else
+        {
+            stats = accumulate(0, N);
+        }
+
+        double[][] agreementValues = new double[A][A];
+        double[][] kappaValues = new double[A][A];
+        for (int a = 0; a < A; a++)
+        {
+            agreementValues[a][a] = 1.0;
+            kappaValues[a][a] = 1.0;
+            for (int b = a + 1; b < A; b++)
+            {
+                double n = stats.counts[a * A + b];
+                double agreement = stats.agreementSums[a * A + b] / n;
+                double pe = 0.0;
+                for (int q = 0; q < Q; q++)
+                {
+                    pe += stats.freqs[a * Q + q] * stats.freqs[b * Q + q];
+                }
+                pe /= Math.pow(n, 2);
+                double kappa = (agreement - pe) / (1 - pe);
+
+                agreementValues[a][b] = agreement;
+                agreementValues[b][a] = agreement;
+                kappaValues[a][b] = kappa;
+                kappaValues[b][a] = kappa;
+            }
+        }
+        agreements = new IndexedMatrix<>(annotators, annotators, agreementValues);
+        kappas = new IndexedMatrix<>(annotators, annotators, kappaValues);
+    }
+
+    /**
+     * Accumulates the statistics of subjects in [from, to).
+     */
+    private PairStatistics accumulate(int from, int to)
+    {
+        PairStatistics stats = new PairStatistics();
+        double[] scores = new double[A * Q];
+        double[] squares = new double[A];
+
+        // ordinals of categories with non-zero scores for each annotator
+        int[] nonZeros = new int[A * Q];
+        int[] numNonZeros = new int[A];
+
+        for (int s = from; s < to; s++)
+        {
+            K k = subjects.get(s);
+            for (int a = 0; a < A; a++)
+            {
+                AnnotationMatrix<K, L> m = matrices.get(a);
+                int i = sharedSubjectIndex ? s : m.indexOfData(k);
+                double squared = 0.0;
+                numNonZeros[a] = 0;
+                for (int j = 0; j < Q; j++)
+                {
+                    double score = 0.0;
+                    int index = categoryIndices[a][j];
+                    if (i < 0)
+                    {
+                        score = 0.0;
+                    }
+                    else if (index < 0)
+                    {
+                        score = m.get(k, category.get(j));
+                    }
+                    else
+                    {
+                        score = m.get(i, index);
+                    }
+                    scores[a * Q + j] = score;
+                    if (score != 0.0)
+                    {
+                        nonZeros[a * Q + numNonZeros[a]++] = j;
+                        squared += score * score;
+                        stats.freqs[a * Q + j] += score;
+                    }
+                }
+                squares[a] = squared;
+            }
+
+            for (int a = 0; a < A; a++)
+            {
+                for (int b = a + 1; b < A; b++)
+                {
+                    double product = 0.0;
+                    for (int t = 0; t < numNonZeros[a]; t++)
+                    {
+                        int j = nonZeros[a * Q + t];
+                        product += scores[a * Q + j] * scores[b * Q + j];
+                    }
+                    double norm = 0.5 * (squares[a] + squares[b]);
+                    if (norm == 0.0)
+                    {
+                        continue;
+                    }
+                    stats.agreementSums[a * A + b] += product / norm;
+                    stats.counts[a * A + b] += 1.0;
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Sums over subjects for all pairs of annotators.
+     */
+    private class PairStatistics
+    {
+        // [A * A] the sum of agreements of each pair (a < b)
+        private double[] agreementSums = new double[A * A];
+
+        // [A * A] the number of subjects labeled by either of each pair (a < b)
+        private double[] counts = new double[A * A];
+
+        // [A * Q] the sum of scores
+        private double[] freqs = new double[A * Q];
+
+        private PairStatistics merge(PairStatistics other)
+        {
+            for (int i = 0; i < agreementSums.length; i++)
+            {
+                agreementSums[i] += other.agreementSums[i];
+                counts[i] += other.counts[i];
+            }
+            for (int i = 0; i < freqs.length; i++)
+            {
+                freqs[i] += other.freqs[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Splits subjects into chunks and merges the statistics of them.
+     */
+    private class AccumulationTask extends RecursiveTask<PairStatistics>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private int from;
+        private int to;
+        private int chunkSize;
+
+        public AccumulationTask(int from, int to, int chunkSize)
+        {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected PairStatistics compute()
+        {
+            if (to - from <= chunkSize)
+            {
+                return accumulate(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            AccumulationTask left = new AccumulationTask(from, middle, chunkSize);
+            AccumulationTask right = new AccumulationTask(middle, to, chunkSize);
+            left.fork();
+            PairStatistics stats = right.compute();
+            return left.join().merge(stats);
+        }
+    }
+}
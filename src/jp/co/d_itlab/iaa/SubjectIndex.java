@@ -0,0 +1,234 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing,
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.iaa;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registry of subjects which assigns dense ordinals to subjects in the order of insertion.
+ *
+ * Subjects can only be added, so that an ordinal once assigned never changes.
+ * Annotation matrices sharing a registry lay out their rows by the ordinals,
+ * which lets subjects be joined across annotators by array indexing.
+ * Interning is not thread-safe, whereas lookups may run concurrently while no subjects are added.
+ * Given an encoder which maps subjects to distinct non-negative long values,
+ * subjects which encode are kept in an open-addressing table of the values instead of the hash map.
+ *
+ * @param <K> - data index type
+ */
+public class SubjectIndex<K>
+{
+    private Map<K, Integer> ordinals;
+    private Object[] keys;
+    private int size = 0;
+
+    // encoded subjects, where slots hold ordinal + 1 and 0 marks an empty slot
+    private ToLongFunction<? super K> encoder;
+    private long[] codes;
+    private int[] slots;
+    private int numCodes = 0;
+
+    public SubjectIndex()
+    {
+        this(16);
+    }
+
+    public SubjectIndex(int capacity)
+    {
+        this(capacity, null);
+    }
+
+    public SubjectIndex(ToLongFunction<? super K> encoder)
+    {
+        this(16, encoder);
+    }
+
+    /**
+     * @param encoder - function which returns a non-negative value unique to each subject, or a negative value if a subject can not be encoded
+     */
+    public SubjectIndex(int capacity, ToLongFunction<? super K> encoder)
+    {
+        capacity = Math.max(capacity, 16);
+        ordinals = new HashMap<>(encoder == null ? capacity * 2 : 16);
+        keys = new Object[capacity];
+        this.encoder = encoder;
+        if (encoder != null)
+        {
+            int n = Integer.highestOneBit(capacity - 1) << 2;
+            codes = new long[n];
+            slots = new int[n];
+        }
+    }
+
+    public SubjectIndex(List<K> subjects)
+    {
+        this(subjects.size());
+        for (K k : subjects)
+        {
+            intern(k);
+        }
+    }
+
+    /**
+     * Returns the ordinal of a subject, which is newly assigned if the subject has not been registered.
+     */
+    public int intern(K k)
+    {
+        long code = encoder == null ? -1 : encoder.applyAsLong(k);
+        if (code >= 0)
+        {
+            int slot = find(code);
+            if (slots[slot] != 0)
+            {
+                return slots[slot] - 1;
+            }
+            codes[slot] = code;
+            slots[slot] = size + 1;
+            if (++numCodes * 2 > codes.length)
+            {
+                rehash();
+            }
+            return append(k);
+        }
+        Integer i = ordinals.get(k);
+        if (i != null)
+        {
+            return i;
+        }
+        ordinals.put(k, size);
+        return append(k);
+    }
+
+    private int append(K k)
+    {
+        if (size == keys.length)
+        {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size] = k;
+        return size++;
+    }
+
+    /**
+     * Returns the slot holding a code, or the empty slot where the code is to be put.
+     */
+    private int find(long code)
+    {
+        int mask = codes.length - 1;
+        long h = code * 0x9E3779B97F4A7C15L;
+        int slot = (int)(h ^ (h >>> 32)) & mask;
+        while (slots[slot] != 0 && codes[slot] != code)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash()
+    {
+        long[] oldCodes = codes;
+        int[] oldSlots = slots;
+        codes = new long[oldCodes.length * 2];
+        slots = new int[oldSlots.length * 2];
+        for (int i = 0; i < oldCodes.length; i++)
+        {
+            if (oldSlots[i] != 0)
+            {
+                int slot = find(oldCodes[i]);
+                codes[slot] = oldCodes[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the ordinal of a subject, or -1 if it has not been registered.
+     */
+    public int indexOf(K k)
+    {
+        long code = encoder == null ? -1 : encoder.applyAsLong(k);
+        if (code >= 0)
+        {
+            return slots[find(code)] - 1;
+        }
+        Integer i = ordinals.get(k);
+        return i == null ? -1 : i;
+    }
+
+    public boolean contains(K k)
+    {
+        return indexOf(k) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public K get(int i)
+    {
+        if (i < 0 || i >= size)
+        {
+            throw new IndexOutOfBoundsException("Ordinal: " + i + ", Size: " + size);
+        }
+        return (K)keys[i];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns an unmodifiable list of the subjects registered so far in the order of their ordinals.
+     * The list is not affected by subjects added afterwards.
+     */
+    public List<K> asList()
+    {
+        return new Snapshot<>(keys, size);
+    }
+
+    /**
+     * Subjects are never overwritten, so the first n entries of the array stay valid even if the registry grows.
+     */
+    private static class Snapshot<K> extends AbstractList<K> implements RandomAccess
+    {
+        private Object[] keys;
+        private int size;
+
+        private Snapshot(Object[] keys, int size)
+        {
+            this.keys = keys;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public K get(int i)
+        {
+            if (i < 0 || i >= size)
+            {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+            }
+            return (K)keys[i];
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    }
+}
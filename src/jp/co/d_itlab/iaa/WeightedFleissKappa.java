@@ -14,13 +14,12 @@ package jp.co.d_itlab.iaa;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
-import jp.co.d_itlab.dbdc.logging.FootPrint;
 import jp.co.d_itlab.dbdc.logging.FootPrint;
 import jp.co.d_itlab.math.VarianceEstimator;
 
@@ -31,13 +30,13 @@ public class WeightedFleissKappa<K, L>
 {
     private Map<String, AnnotationMatrix<K, L>> data;
     private ConfusionMatrix<L> confusion;
-    private Map<K, Map<L, Double>> x;
     private Map<L, Double> q;
     private Map<String, Map<L, Double>> freqs;
     private Map<L, Double> cofreq;
     private Map<String, Map<L, Double>> wfreqs;
     private Double agreement = null;
     private Double kappa = null;
+    private AgreementStatistics<L> statistics;
     private Map<String, Double> labelCardinalities;
     private Map<String, Double> labelDensities;
     
@@ -52,6 +51,18 @@ public class WeightedFleissKappa<K, L>
     private List<K> subjects;
     private int N = 0;
     
+    // Annotation matrices in the order of judges
+    private List<String> judges;
+    private List<AnnotationMatrix<K, L>> matrices;
+    private int[][] categoryIndices;
+    
+    // true if all matrices share a subject registry, where the ordinal of a subject is its position in subjects
+    private boolean sharedSubjectIndex;
+    
+    // Number of threads
+    private int parallelism = 1;
+    private final static int MIN_CHUNK_SIZE = 1024;
+    
     public WeightedFleissKappa(Map<String, AnnotationMatrix<K, L>> data, List<L> category)
     {
         this.data = data;
@@ -65,7 +76,6 @@ public class WeightedFleissKappa<K, L>
             freqs = new HashMap<>();
             cofreq = new HashMap<>();
             wfreqs = new HashMap<>();
-            x = new HashMap<>();
             q = new HashMap<>();
             labelCardinalities = new HashMap<>();
             labelDensities = new HashMap<>();
@@ -256,6 +266,27 @@ public class WeightedFleissKappa<K, L>
         return kappa;
     }
     
+    /**
+     * Returns the sufficient statistics, which can be written to a file and merged with those of other subjects.
+     */
+    public AgreementStatistics<L> getStatistics()
+    {
+        if (statistics == null)
+        {
+            caculate();
+        }
+        return statistics;
+    }
+    
+    /**
+     * Returns the agreement and the kappa coefficient calculated with each annotator left out, and their jackknife standard errors.
+     * At least three annotators are required.
+     */
+    public AnnotatorJackknife getJackknife()
+    {
+        return new AnnotatorJackknife(getStatistics());
+    }
+    
     public ConfusionMatrix<L> getConfusionMatrix()
     {
         return confusion;
@@ -271,141 +302,148 @@ public class WeightedFleissKappa<K, L>
         return  new VarianceEstimator(labelDensities.values());
     }
     
-    private void caculate()
+    /**
+     * Sets the number of threads used in the calculation.
+     * Subjects are split into chunks, each of which is accumulated on a fork/join pool and merged at the end.
+     * 
+     * @param parallelism - the number of threads (1 for sequential calculation)
+     */
+    public void setParallelism(int parallelism)
     {
-        // Counter for debugging
-        int numInconsistent = 0;
-
-        // calculate IAA
-        Map<K, Double> agreements = new HashMap<>();
-        Map<K, Double> norms = new HashMap<>();
-        List<List<String>> pairs = getPairComb(data.keySet());
-        Set<String> judges = data.keySet();
-        
-        // initialization
-        for (L c : category)
+        this.parallelism = Math.max(1, parallelism);
+    }
+    
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+    
+    /**
+     * Returns the annotators in the order of the scores given by {@link #getScores(int, double[])}.
+     */
+    List<String> getJudges()
+    {
+        prepare();
+        return judges;
+    }
+    
+    List<K> getSubjects()
+    {
+        return subjects;
+    }
+    
+    /**
+     * Gets the scores of the s-th subject, where the score of the a-th annotator for the q-th category is placed at a * Q + q.
+     */
+    void getScores(int s, double[] scores)
+    {
+        prepare();
+        K k = subjects.get(s);
+        for (int a = 0; a < A; a++)
         {
-            for (Map<L, Double> freq : freqs.values())
+            AnnotationMatrix<K, L> m = matrices.get(a);
+            int i = sharedSubjectIndex ? s : m.indexOfData(k);
+            for (int j = 0; j < Q; j++)
             {
-                freq.put(c, 0.0);
-            }
-            
-            cofreq.put(c, 0.0);
-            
-            for (Map<L, Double> wfreq : wfreqs.values())
-            {
-                wfreq.put(c, 0.0);
-            }
-            
-            for (L c2 : category)
-            {
-                confusion.set(c, c2, 0.0);
+                int index = categoryIndices[a][j];
+                if (i < 0)
+                {
+                    scores[a * Q + j] = 0.0;
+                }
+                else if (index < 0)
+                {
+                    scores[a * Q + j] = m.get(k, category.get(j));
+                }
+                else
+                {
+                    scores[a * Q + j] = m.get(i, index);
+                }
             }
-        } 
-        
-        // For debugging
-        Map<String, Double> offsets = new HashMap<>();
-        for (String a : data.keySet())
+        }
+    }
+    
+    private void prepare()
+    {
+        if (judges != null)
         {
-            offsets.put(a, 0.0);
+            return;
         }
         
-        double n = 0.0;
-        for (K k : subjects)
+        judges = new ArrayList<>(data.keySet());
+        
+        // ordinals of categories in each annotation matrix
+        matrices = new ArrayList<>(A);
+        categoryIndices = new int[A][Q];
+        for (int a = 0; a < A; a++)
         {
-            n += 1.0;
-            agreements.put(k, 0.0);
-            x.put(k, new HashMap<>());
-            for (L l : category)
+            AnnotationMatrix<K, L> m = data.get(judges.get(a));
+            matrices.add(m);
+            for (int j = 0; j < Q; j++)
             {
-                x.get(k).put(l, 0.0);
+                categoryIndices[a][j] = m.indexOfCategory(category.get(j));
             }
-            
-            Map<String, Double> sumOfScores = new HashMap<>();
-            Map<String, Map<L, Double>> dists = new HashMap<>();
-            for (String a : judges)
+        }
+        
+        // subjects are joined across annotators by their ordinals if the registry is shared
+        SubjectIndex<K> index = matrices.get(0).getSubjectIndex();
+        sharedSubjectIndex = index.size() >= N;
+        for (AnnotationMatrix<K, L> m : matrices)
+        {
+            if (m.getSubjectIndex() != index || m.getNumData() != N)
             {
-                sumOfScores.put(a, 0.0);
-                dists.put(a,  new HashMap<>());
-                
-                int numLabels = 0;
-                for (L l : category)
-                {
-                    double score = data.get(a).get(k, l);
-                    if (score > 0.0)
-                    {
-                        ++numLabels;
-                        freqs.get(a).put(l, freqs.get(a).get(l) + 1.0);   
-                    }
-                    x.get(k).put(l, x.get(k).get(l) + score);
-                    dists.get(a).put(l, 0.0);
-                    wfreqs.get(a).put(l, wfreqs.get(a).get(l) + score);    
-                }
-                
-                labelCardinalities.put(a, labelCardinalities.get(a) + numLabels);
-                labelDensities.put(a, labelDensities.get(a) + (double)numLabels/Q);
+                sharedSubjectIndex = false;
             }
-            
-            norms.put(k, 0.0);
-            for (L l : category)
+        }
+    }
+    
+    private void caculate()
+    {
+        prepare();
+        
+        AgreementStatistics<L> stats;
+        if (parallelism > 1 && N > MIN_CHUNK_SIZE)
+        {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, N / (parallelism * 4));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try
             {
-                for (String a : judges)
-                {
-                    dists.get(a).put(l, dists.get(a).get(l) + data.get(a).get(k, l));    
-                }
-                
-                for (List<String> pair : pairs)
-                {
-                    String a1 = pair.get(0);
-                    String a2 = pair.get(1);
-                    
-                    double score1 = data.get(a1).get(k, l);
-                    double score2 = data.get(a2).get(k, l);
-                    double prod = score1 * score2;
-                    agreements.put(k,  agreements.get(k) + prod);
-                    norms.put(k, norms.get(k) + 0.5  *(score1 * score1 +  score2 * score2));
-                    
-                    if (prod > 0.0)
-                    {
-                        cofreq.put(l, cofreq.get(l) + 1.0);
-                    }
-                }
+                stats = pool.invoke(new AccumulationTask(0, N, chunkSize));
             }
-            
-            // Confusion matrix
-            List<List<String>> symPairs = getSymmetricPairComb(data.keySet());
-            for (L l1 : category)
+            finally
             {
-                for (L l2 : category)
-                {
-                    for (List<String> pair : symPairs)
-                    {
-                        double v1 = dists.get(pair.get(0)).get(l1);
-                        double v2 = dists.get(pair.get(1)).get(l2);
-                        //double v = v1 * v2 / (N * symPairs.size());
-                        double v = v1 * v2 / symPairs.size();
-                        confusion.add(l1, l2, v);
-                    }
-                }
+                pool.shutdown();
             }
         }
+        else
+        {
+            stats = accumulate(0, N);
+        }
         
-        FootPrint.debug("#Inconsistents: " + numInconsistent);
-        
-        for (String aid : labelCardinalities.keySet())
+        for (int a = 0; a < A; a++)
         {
-            labelCardinalities.put(aid, labelCardinalities.get(aid) / N);
-            labelDensities.put(aid, labelDensities.get(aid) / N);
+            String aid = judges.get(a);
+            double normFreq = stats.getTotalWeightedFreq(a);
+            for (int j = 0; j < Q; j++)
+            {
+                L c = category.get(j);
+                freqs.get(aid).put(c, stats.getFreq(a, j));
+                wfreqs.get(aid).put(c, stats.getWeightedFreq(a, j) / normFreq);
+            }
+            labelCardinalities.put(aid, stats.getLabelCardinality(a));
+            labelDensities.put(aid, stats.getLabelDensity(a));
         }
         
-        for (L l : category)
+        for (int j = 0; j < Q; j++)
         {
-            q.put(l, 0.0);
-            for (K k : subjects)
+            L c = category.get(j);
+            cofreq.put(c, stats.getCofreq(j));
+            q.put(c, stats.getScoreSum(j));
+            for (int j2 = 0; j2 < Q; j2++)
             {
-                q.put(l, q.get(l) +x.get(k).get(l));
+                confusion.set(c, category.get(j2), stats.getConfusion(j, j2));
             }
         }
+        
         double normQ = q.values().stream().mapToDouble(Double::doubleValue).sum();
         if (Math.abs(normQ - N * category.size()) > 0.1)
         {
@@ -419,107 +457,62 @@ public class WeightedFleissKappa<K, L>
         }
 
         // Calculation by proposed weighted Fleiss' kappa coefficient.
-        for (K k : subjects)
-        {
-            double agreement = agreements.get(k) / norms.get(k);
-            if (Double.isNaN(agreement))
-            {
-                agreement = 0.0; // Pending
-            }
-            agreements.put(k,  agreements.get(k) / norms.get(k));
-        }
-        agreement = agreements.values().stream().mapToDouble(Double::doubleValue).sum() / N;
-        // Calculation by the ordinary Fleiss' kappa coefficient.
-        /*
-        for (K k : subjects)
-        {
-            double agreement = agreements.get(k);
-            if (Double.isNaN(agreement))
-            {
-                agreement = 0.0; // Pending
-            }
-            agreements.put(k,  agreement);
-        }
-        agreement = agreements.values().stream().mapToDouble(Double::doubleValue).sum() / N;
-        agreement /= judges.size() * (judges.size() - 1) / 2;
-         */
+        agreement = stats.getAgreement();
         
-        for (String aid : judges)
-        {
-            double normFreq = 0.0;
-            for (L c : category)
-            {
-                normFreq += wfreqs.get(aid).get(c);
-            }
-            for (L c : category)
-            {
-                wfreqs.get(aid).put(c, wfreqs.get(aid).get(c) / normFreq);
-            }
-        }
-        
-        double pe = 0.0;
-        // Calculation of pe (part 1)
-        // Use the distribution averaged over all annotators.
-        /*
-        for (L l : category)
-        {
-            pe += q.get(l) * q.get(l);
-        }
-        */
-        // Calculation of pe (part 2)
         // Calculates the average of chance of agreement over all pairs of annotators.
-        for (List<String> pair : pairs)
-        {
-            String a1 = pair.get(0);
-            String a2 = pair.get(1);
-            for (L c : category)
-            {
-                pe += wfreqs.get(a1).get(c) * wfreqs.get(a2).get(c);
-            }
-        }
-        pe /= pairs.size();
+        kappa = stats.getKappa();
         
-        kappa = (agreement - pe) / (1 - pe);
+        statistics = stats;
     }
     
-    private List<List<String>> getPairComb(Set<String> annotators)
+    /**
+     * Accumulates the statistics of subjects in [from, to).
+     */
+    private AgreementStatistics<L> accumulate(int from, int to)
     {
-        List<List<String>> pairs = new ArrayList<>();
-        
-        String[] annotatorArray = new String[annotators.size()];
-        annotators.toArray(annotatorArray);
-        
-        for (int i = 0; i < annotatorArray.length; i++)
+        AgreementStatistics<L> stats = new AgreementStatistics<>(judges, category);
+        double[] scores = new double[A * Q];
+        for (int s = from; s < to; s++)
         {
-            for (int j = i + 1; j < annotatorArray.length; j++)
-            {
-                pairs.add(Arrays.asList(new String[] {annotatorArray[i], annotatorArray[j]}));
-            }
+            getScores(s, scores);
+            stats.add(scores);
         }
-        
-        return pairs;
+        return stats;
     }
     
-    private List<List<String>> getSymmetricPairComb(Set<String> annotators)
+    /**
+     * Splits subjects into chunks and merges the statistics of them.
+     */
+    private class AccumulationTask extends RecursiveTask<AgreementStatistics<L>>
     {
-        List<List<String>> pairs = new ArrayList<>();
+        private static final long serialVersionUID = 1L;
+        
+        private int from;
+        private int to;
+        private int chunkSize;
         
-        String[] annotatorArray = new String[annotators.size()];
-        annotators.toArray(annotatorArray);
+        public AccumulationTask(int from, int to, int chunkSize)
+        {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
         
-        for (int i = 0; i < annotatorArray.length; i++)
+        @Override
+        protected AgreementStatistics<L> compute()
         {
-            for (int j =0; j < annotatorArray.length; j++)
+            if (to - from <= chunkSize)
             {
-                if (i == j)
-                {
-                    continue;
-                }
-                pairs.add(Arrays.asList(new String[] {annotatorArray[i], annotatorArray[j]}));
+                return accumulate(from, to);
             }
+            
+            int middle = (from + to) >>> 1;
+            AccumulationTask left = new AccumulationTask(from, middle, chunkSize);
+            AccumulationTask right = new AccumulationTask(middle, to, chunkSize);
+            left.fork();
+            AgreementStatistics<L> stats = right.compute();
+            return left.join().merge(stats);
         }
-        
-        return pairs;
     }
     
     private double sum(Map<String, Map<L, Double>> norms)
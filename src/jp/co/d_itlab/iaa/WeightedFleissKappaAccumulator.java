@@ -0,0 +1,265 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing, 
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.iaa;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates annotations subject by subject and calculates the weighted Fleiss' kappa coefficient on demand.
+ * 
+ * Only the sufficient statistics are aggregated, so that the agreement and the kappa coefficient are refreshed
+ * without scanning the subjects added so far.
+ * The scores of each subject are retained so that an annotation can be removed or replaced afterwards;
+ * the contribution of the subject is subtracted and added again in O(A * Q + Q^2).
+ *
+ * @param <K> - data index type
+ * @param <L> - label type
+ */
+public class WeightedFleissKappaAccumulator<K, L>
+{
+    private List<String> annotators;
+    private List<L> category;
+    private Map<String, Integer> annotatorIndex;
+    private Map<L, Integer> categoryIndex;
+    private Map<K, double[]> subjects;
+    private AgreementStatistics<L> statistics;
+    
+    public WeightedFleissKappaAccumulator(List<String> annotators, List<L> category)
+    {
+        if (annotators.size() < 2)
+        {
+            throw new RuntimeException("Weighted Fleiss' Kappa can not be calculated for annotation data with less than two annotators.");
+        }
+        
+        this.annotators = annotators;
+        this.category = category;
+        annotatorIndex = new HashMap<>();
+        for (int a = 0; a < annotators.size(); a++)
+        {
+            annotatorIndex.put(annotators.get(a), a);
+        }
+        categoryIndex = new HashMap<>();
+        for (int q = 0; q < category.size(); q++)
+        {
+            categoryIndex.put(category.get(q), q);
+        }
+        subjects = new HashMap<>();
+        statistics = new AgreementStatistics<>(annotators, category);
+    }
+    
+    public List<String> getAnnotators()
+    {
+        return annotators;
+    }
+    
+    public List<L> getCategory()
+    {
+        return category;
+    }
+    
+    /**
+     * Adds annotations of a subject.
+     * A subject without any non-zero score has no agreement, and is not added until an annotation with a score is given.
+     * 
+     * @param k - subject
+     * @param annotations - scores of labels for each annotator. Annotators who did not annotate the subject can be omitted.
+     */
+    public void add(K k, Map<String, Map<L, Double>> annotations)
+    {
+        if (subjects.containsKey(k))
+        {
+            throw new RuntimeException("Annotations of a subject have already been added: " + k);
+        }
+        
+        double[] scores = new double[annotators.size() * category.size()];
+        for (String aid : annotations.keySet())
+        {
+            setScores(scores, indexOfAnnotator(aid), annotations.get(aid));
+        }
+        if (!hasScore(scores))
+        {
+            return;
+        }
+        subjects.put(k, scores);
+        statistics.add(scores);
+    }
+    
+    /**
+     * Replaces the annotation of a subject by an annotator.
+     * 
+     * @param aid - annotator ID
+     * @param k - subject
+     * @param annotation - new scores of labels
+     */
+    public void replace(String aid, K k, Map<L, Double> annotation)
+    {
+        int a = indexOfAnnotator(aid);
+        double[] scores = subjects.get(k);
+        if (scores == null)
+        {
+            Map<String, Map<L, Double>> annotations = new HashMap<>();
+            annotations.put(aid, annotation);
+            add(k, annotations);
+            return;
+        }
+        
+        statistics.remove(scores);
+        setScores(scores, a, annotation);
+        update(k, scores);
+    }
+    
+    /**
+     * Removes the annotation of a subject by an annotator.
+     * The subject itself is removed when no annotations are left.
+     * 
+     * @param aid - annotator ID
+     * @param k - subject
+     */
+    public void remove(String aid, K k)
+    {
+        int a = indexOfAnnotator(aid);
+        double[] scores = subjects.get(k);
+        if (scores == null)
+        {
+            return;
+        }
+        
+        statistics.remove(scores);
+        setScores(scores, a, null);
+        update(k, scores);
+    }
+    
+    /**
+     * Removes all annotations of a subject.
+     */
+    public void remove(K k)
+    {
+        double[] scores = subjects.remove(k);
+        if (scores != null)
+        {
+            statistics.remove(scores);
+        }
+    }
+    
+    private void update(K k, double[] scores)
+    {
+        if (hasScore(scores))
+        {
+            statistics.add(scores);
+            return;
+        }
+        subjects.remove(k);
+    }
+    
+    private static boolean hasScore(double[] scores)
+    {
+        for (double score : scores)
+        {
+            if (score != 0.0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private int indexOfAnnotator(String aid)
+    {
+        Integer a = annotatorIndex.get(aid);
+        if (a == null)
+        {
+            throw new RuntimeException("Unknown annotator: " + aid);
+        }
+        return a;
+    }
+    
+    private void setScores(double[] scores, int a, Map<L, Double> row)
+    {
+        int Q = category.size();
+        Arrays.fill(scores, a * Q, (a + 1) * Q, 0.0);
+        if (row == null)
+        {
+            return;
+        }
+        for (L l : row.keySet())
+        {
+            Integer q = categoryIndex.get(l);
+            if (q != null)
+            {
+                scores[a * Q + q] += row.get(l);
+            }
+        }
+    }
+    
+    public boolean contains(K k)
+    {
+        return subjects.containsKey(k);
+    }
+    
+    public int getNumSubjects()
+    {
+        return subjects.size();
+    }
+    
+    public AgreementStatistics<L> getStatistics()
+    {
+        return statistics;
+    }
+    
+    /**
+     * Returns the observed agreement of subjects added so far.
+     */
+    public double getAgreement()
+    {
+        return statistics.getAgreement();
+    }
+    
+    /**
+     * Returns the agreement by chance (Pe) of subjects added so far.
+     */
+    public double getChanceAgreement()
+    {
+        return statistics.getChanceAgreement();
+    }
+    
+    public double getKappa()
+    {
+        return statistics.getKappa();
+    }
+    
+    public ConfusionMatrix<L> getConfusionMatrix()
+    {
+        ConfusionMatrix<L> confusion = new ConfusionMatrix<>(category);
+        for (int q1 = 0; q1 < category.size(); q1++)
+        {
+            for (int q2 = 0; q2 < category.size(); q2++)
+            {
+                confusion.set(category.get(q1), category.get(q2), statistics.getConfusion(q1, q2));
+            }
+        }
+        return confusion;
+    }
+    
+    public double getLabelCardinality(String aid)
+    {
+        return statistics.getLabelCardinality(indexOfAnnotator(aid));
+    }
+    
+    public double getLabelDensity(String aid)
+    {
+        return statistics.getLabelDensity(indexOfAnnotator(aid));
+    }
+}
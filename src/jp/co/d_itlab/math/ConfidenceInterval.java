@@ -0,0 +1,172 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing, 
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.math;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+
+/**
+ * Confidence interval estimated from bootstrap replicates.
+ */
+public class ConfidenceInterval
+{
+    private double estimate;
+    private double lower;
+    private double upper;
+    private double level;
+    
+    public ConfidenceInterval(double estimate, double lower, double upper, double level)
+    {
+        this.estimate = estimate;
+        this.lower = lower;
+        this.upper = upper;
+        this.level = level;
+    }
+    
+    /**
+     * Percentile interval.
+     * 
+     * @param estimate - estimate on the original sample
+     * @param replicates - estimates on bootstrap samples
+     * @param level - confidence level (e.g. 0.95)
+     */
+    public static ConfidenceInterval percentile(double estimate, double[] replicates, double level)
+    {
+        double[] sorted = sort(replicates);
+        double alpha = (1.0 - level) / 2.0;
+        return new ConfidenceInterval(estimate, quantile(sorted, alpha), quantile(sorted, 1.0 - alpha), level);
+    }
+    
+    /**
+     * Bias-corrected and accelerated (BCa) interval.
+     * 
+     * @param estimate - estimate on the original sample
+     * @param replicates - estimates on bootstrap samples
+     * @param jackknife - estimates on the samples where each unit is left out, used for the acceleration
+     * @param level - confidence level (e.g. 0.95)
+     */
+    public static ConfidenceInterval bca(double estimate, double[] replicates, double[] jackknife, double level)
+    {
+        double[] sorted = sort(replicates);
+        
+        // bias correction
+        double below = 0.0;
+        for (double r : sorted)
+        {
+            if (r < estimate)
+            {
+                below += 1.0;
+            }
+            else if (r == estimate)
+            {
+                below += 0.5;
+            }
+        }
+        double z0 = NormalDistribution.quantile(below / sorted.length);
+        
+        // acceleration
+        double mean = 0.0;
+        int n = 0;
+        for (double j : jackknife)
+        {
+            if (!Double.isNaN(j))
+            {
+                mean += j;
+                ++n;
+            }
+        }
+        mean /= n;
+        double squared = 0.0;
+        double cubed = 0.0;
+        for (double j : jackknife)
+        {
+            if (!Double.isNaN(j))
+            {
+                double d = mean - j;
+                squared += d * d;
+                cubed += d * d * d;
+            }
+        }
+        double acceleration = squared > 0.0 ? cubed / (6.0 * Math.pow(squared, 1.5)) : 0.0;
+        
+        double alpha = (1.0 - level) / 2.0;
+        double lower = quantile(sorted, adjust(alpha, z0, acceleration));
+        double upper = quantile(sorted, adjust(1.0 - alpha, z0, acceleration));
+        return new ConfidenceInterval(estimate, lower, upper, level);
+    }
+    
+    private static double adjust(double alpha, double z0, double acceleration)
+    {
+        if (Double.isInfinite(z0) || Double.isNaN(z0))
+        {
+            // all replicates are on the same side of the estimate
+            return alpha;
+        }
+        double z = z0 + NormalDistribution.quantile(alpha);
+        return NormalDistribution.cdf(z0 + z / (1.0 - acceleration * z));
+    }
+    
+    private static double[] sort(double[] values)
+    {
+        double[] sorted = Arrays.stream(values).filter(v -> !Double.isNaN(v)).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+    
+    /**
+     * Returns the p-quantile of sorted values with linear interpolation.
+     */
+    private static double quantile(double[] sorted, double p)
+    {
+        if (sorted.length == 0)
+        {
+            return Double.NaN;
+        }
+        double h = (sorted.length - 1) * Math.min(1.0, Math.max(0.0, p));
+        int i = (int)Math.floor(h);
+        if (i + 1 >= sorted.length)
+        {
+            return sorted[sorted.length - 1];
+        }
+        return sorted[i] + (h - i) * (sorted[i + 1] - sorted[i]);
+    }
+    
+    public double getEstimate()
+    {
+        return estimate;
+    }
+    
+    public double getLower()
+    {
+        return lower;
+    }
+    
+    public double getUpper()
+    {
+        return upper;
+    }
+    
+    public double getLevel()
+    {
+        return level;
+    }
+    
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return MessageFormat.format("{0,number,0.000} [{1,number,0.000}, {2,number,0.000}] ({3,number,percent})", estimate, lower, upper, level);
+    }
+}
@@ -0,0 +1,85 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+/// Inter-Annotator Agreement
+/// Copyright (c) 2021 DENSO IT LABORATORY, INC. All rights reserved.
+///
+/// Unless required by applicable law or agreed to in writing, 
+/// software distributed under the License is distributed on an "AS IS" BASIS,
+/// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+/// History:
+/// [000] 2026/10/17, Created.
+///
+package jp.co.d_itlab.math;
+
+/**
+ * The standard normal distribution.
+ */
+public class NormalDistribution
+{
+    // Coefficients of the rational approximation of the quantile function (P. J. Acklam)
+    private final static double[] A = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    private final static double[] B = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+    private final static double[] C = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    private final static double[] D = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+    private final static double P_LOW = 0.02425;
+    
+    /**
+     * Returns the cumulative probability of x.
+     */
+    public static double cdf(double x)
+    {
+        return 0.5 * erfc(-x / Math.sqrt(2.0));
+    }
+    
+    /**
+     * Returns x whose cumulative probability is p.
+     */
+    public static double quantile(double p)
+    {
+        if (p <= 0.0)
+        {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (p >= 1.0)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+        
+        double x;
+        if (p < P_LOW)
+        {
+            double q = Math.sqrt(-2 * Math.log(p));
+            x = (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5]) / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        else if (p <= 1 - P_LOW)
+        {
+            double q = p - 0.5;
+            double r = q * q;
+            x = (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+        }
+        else
+        {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            x = -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5]) / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        
+        // One step of Halley's method for refinement
+        double e = cdf(x) - p;
+        double u = e * Math.sqrt(2 * Math.PI) * Math.exp(x * x / 2);
+        return x - u / (1 + x * u / 2);
+    }
+    
+    /**
+     * Complementary error function by the Chebyshev fitting of erfcc in Numerical Recipes, whose fractional error is less than 1.2e-7.
+     */
+    private static double erfc(double x)
+    {
+        double z = Math.abs(x);
+        double t = 1.0 / (1.0 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2.0 - r;
+    }
+}